@@ -0,0 +1,74 @@
+package io.reactiverse.reactivecontexts.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactiverse.reactivecontexts.core.ContextProvider;
+
+/**
+ * Thread-local based {@link ContextProvider}, behaving like a typical RESTEasy or Weld provider.
+ */
+public class BenchmarkContextProvider implements ContextProvider<Object> {
+
+	private final ThreadLocal<Object> context = new ThreadLocal<Object>();
+	private final boolean changeDetection;
+
+	public BenchmarkContextProvider(boolean changeDetection) {
+		this.changeDetection = changeDetection;
+	}
+
+	/**
+	 * Creates a list of providers, each with a context value set for the current thread.
+	 * @param count the number of providers to create
+	 * @return the list of providers
+	 */
+	public static List<BenchmarkContextProvider> create(int count) {
+		return create(count, false);
+	}
+
+	/**
+	 * Creates a list of providers, each with a context value set for the current thread.
+	 * @param count the number of providers to create
+	 * @param changeDetection whether the providers implement {@link ContextProvider#isInstalled(Object)}
+	 * @return the list of providers
+	 */
+	public static List<BenchmarkContextProvider> create(int count, boolean changeDetection) {
+		List<BenchmarkContextProvider> ret = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			BenchmarkContextProvider provider = new BenchmarkContextProvider(changeDetection);
+			provider.set("context " + i);
+			ret.add(provider);
+		}
+		return ret;
+	}
+
+	public Object get() {
+		return context.get();
+	}
+
+	public void set(Object value) {
+		context.set(value);
+	}
+
+	@Override
+	public Object install(Object state) {
+		Object old = context.get();
+		context.set(state);
+		return old;
+	}
+
+	@Override
+	public void restore(Object previousState) {
+		context.set(previousState);
+	}
+
+	@Override
+	public Object capture() {
+		return context.get();
+	}
+
+	@Override
+	public boolean isInstalled(Object state) {
+		return changeDetection && context.get() == state;
+	}
+}
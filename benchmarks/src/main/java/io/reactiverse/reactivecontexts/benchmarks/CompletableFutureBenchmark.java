@@ -0,0 +1,80 @@
+package io.reactiverse.reactivecontexts.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+
+/**
+ * Measures {@link CompletableFuture} chains of various lengths, with and without context propagation
+ * via {@link Context#wrap(CompletableFuture)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompletableFutureBenchmark {
+
+	@Param({"1"})
+	public int providers;
+
+	@Param({"1", "5", "15"})
+	public int stages;
+
+	@Setup
+	public void setup() {
+		Context.setThreadInstance(new Context(BenchmarkContextProvider.create(providers), Collections.<ContextPropagator>emptyList()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		Context.clearThreadInstance();
+	}
+
+	@Benchmark
+	public Integer plain() {
+		return chain(new CompletableFuture<>());
+	}
+
+	@Benchmark
+	public Integer wrapped() {
+		return chain(Context.wrap(new CompletableFuture<>()));
+	}
+
+	@Benchmark
+	public Integer wrappedCompleted() {
+		CompletableFuture<Integer> f = Context.wrap(new CompletableFuture<>());
+		f.complete(0);
+		CompletableFuture<Integer> stage = f;
+		for (int i = 0; i < stages; i++) {
+			stage = stage.thenApply(v -> v + 1);
+		}
+		return stage.join();
+	}
+
+	private Integer chain(CompletableFuture<Integer> f) {
+		CompletableFuture<Integer> stage = f;
+		for (int i = 0; i < stages; i++) {
+			stage = stage.thenApply(v -> v + 1);
+		}
+		f.complete(0);
+		return stage.join();
+	}
+}
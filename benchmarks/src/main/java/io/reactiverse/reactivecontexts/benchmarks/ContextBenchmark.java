@@ -0,0 +1,92 @@
+package io.reactiverse.reactivecontexts.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import io.reactiverse.reactivecontexts.core.ContextState;
+
+/**
+ * Measures the raw cost of {@link Context#captureState()}, {@link Context#install(ContextState)},
+ * {@link Context#restore(ContextState)}, {@link Context#enter(ContextState)} and {@link Context#exit(ContextState)}
+ * depending on the number of registered providers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContextBenchmark {
+
+	@Param({"0", "1", "4", "16"})
+	public int providers;
+
+	@Param({"false", "true"})
+	public boolean changeDetection;
+
+	private Context context;
+	private ContextState state;
+	private List<BenchmarkContextProvider> contextProviders;
+	private boolean flip;
+
+	@Setup
+	public void setup() {
+		contextProviders = BenchmarkContextProvider.create(providers, changeDetection);
+		context = new Context(contextProviders, Collections.<ContextPropagator>emptyList());
+		state = context.captureState();
+	}
+
+	@Benchmark
+	public ContextState captureState() {
+		return context.captureState();
+	}
+
+	@Benchmark
+	public ContextState captureChangedState() {
+		// make sure the last captured state cannot be reused
+		if(!contextProviders.isEmpty()) {
+			flip = !flip;
+			contextProviders.get(0).set(flip ? Boolean.TRUE : Boolean.FALSE);
+		}
+		return context.captureState();
+	}
+
+	@Benchmark
+	public ContextState install() {
+		ContextState previousState = context.install(state);
+		context.restore(previousState);
+		return previousState;
+	}
+
+	@Benchmark
+	public void enter() {
+		context.enter(state);
+		context.exit(state);
+	}
+
+	@Benchmark
+	public void enterReentrant() {
+		context.enter(state);
+		try {
+			context.enter(state);
+			context.exit(state);
+		}finally {
+			context.exit(state);
+		}
+	}
+}
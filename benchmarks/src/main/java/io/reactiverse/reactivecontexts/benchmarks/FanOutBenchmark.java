@@ -0,0 +1,80 @@
+package io.reactiverse.reactivecontexts.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+
+/**
+ * Measures waiting for many futures with {@link Context#allOf(CompletableFuture...)}, compared to wrapping the
+ * result of {@link CompletableFuture#allOf(CompletableFuture...)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FanOutBenchmark {
+
+	@Param({"1"})
+	public int providers;
+
+	@Param({"10", "50"})
+	public int futures;
+
+	@Setup
+	public void setup() {
+		Context.setThreadInstance(new Context(BenchmarkContextProvider.create(providers), Collections.<ContextPropagator>emptyList()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		Context.clearThreadInstance();
+	}
+
+	@Benchmark
+	public Integer wrappedAllOf() {
+		CompletableFuture<?>[] cfs = newFutures();
+		CompletableFuture<Integer> ret = Context.wrap(CompletableFuture.allOf(cfs)).thenApply(v -> 0);
+		return complete(cfs, ret);
+	}
+
+	@Benchmark
+	public Integer allOf() {
+		CompletableFuture<?>[] cfs = newFutures();
+		CompletableFuture<Integer> ret = Context.allOf(cfs).thenApply(v -> 0);
+		return complete(cfs, ret);
+	}
+
+	private CompletableFuture<?>[] newFutures() {
+		CompletableFuture<?>[] cfs = new CompletableFuture<?>[futures];
+		for (int i = 0; i < futures; i++) {
+			cfs[i] = new CompletableFuture<>();
+		}
+		return cfs;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Integer complete(CompletableFuture<?>[] cfs, CompletableFuture<Integer> ret) {
+		for (CompletableFuture<?> cf : cfs) {
+			((CompletableFuture<Object>) cf).complete(null);
+		}
+		return ret.join();
+	}
+}
@@ -0,0 +1,100 @@
+package io.reactiverse.reactivecontexts.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import io.reactiverse.reactivecontexts.propagators.reactor.ReactorContextPropagator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures synchronous Reactor pipelines with and without the {@link ReactorContextPropagator} installed, and
+ * compares reading a propagated context with reading Reactor's own subscriber {@link reactor.util.context.Context}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReactorBenchmark {
+
+	private static final String KEY = "context";
+
+	@Param({"false", "true"})
+	public boolean propagation;
+
+	@Param({"1"})
+	public int providers;
+
+	@Param({"1000"})
+	public int elements;
+
+	private BenchmarkContextProvider provider;
+
+	@Setup
+	public void setup() {
+		// the global instance installs every propagator found on the classpath
+		Context.load();
+		Hooks.resetOnEachOperator();
+		ContextPropagator propagator = new ReactorContextPropagator();
+		List<BenchmarkContextProvider> providers = BenchmarkContextProvider.create(this.providers);
+		provider = providers.get(0);
+		Context.setThreadInstance(new Context(providers, 
+				propagation ? Collections.singletonList(propagator) : Collections.<ContextPropagator>emptyList()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		Context.clearThreadInstance();
+		Hooks.resetOnEachOperator();
+	}
+
+	@Benchmark
+	public void flux(Blackhole blackhole) {
+		Flux.range(0, elements)
+			.map(v -> v + 1)
+			.filter(v -> (v & 1) == 0)
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public void mono(Blackhole blackhole) {
+		Mono.just(1)
+			.map(v -> v + 1)
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public void fluxReadContext(Blackhole blackhole) {
+		Flux.range(0, elements)
+			.map(v -> provider.get())
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public void fluxReadReactorContext(Blackhole blackhole) {
+		Flux.range(0, elements)
+			.handle((v, sink) -> sink.next(sink.contextView().get(KEY)))
+			.contextWrite(reactor.util.context.Context.of(KEY, provider.get()))
+			.subscribe(blackhole::consume);
+	}
+}
@@ -0,0 +1,100 @@
+package io.reactiverse.reactivecontexts.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import io.reactiverse.reactivecontexts.propagators.rxjava1.RxJava1ContextPropagator;
+import rx.Completable;
+import rx.Observable;
+import rx.Single;
+import rx.plugins.RxJavaHooks;
+import rx.schedulers.Schedulers;
+
+/**
+ * Measures RxJava1 pipelines with and without the {@link RxJava1ContextPropagator} installed, in each of its modes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RxJava1Benchmark {
+
+	@Param({"false", "true"})
+	public boolean propagation;
+
+	@Param({"SUBSCRIBER", "SCHEDULER"})
+	public RxJava1ContextPropagator.Mode mode;
+
+	@Param({"1"})
+	public int providers;
+
+	@Param({"1000"})
+	public int elements;
+
+	@Setup
+	public void setup() {
+		// the global instance installs every propagator found on the classpath
+		Context.load();
+		RxJavaHooks.reset();
+		ContextPropagator propagator = new RxJava1ContextPropagator(mode);
+		Context.setThreadInstance(new Context(BenchmarkContextProvider.create(providers), 
+				propagation ? Collections.singletonList(propagator) : Collections.<ContextPropagator>emptyList()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		Context.clearThreadInstance();
+		RxJavaHooks.reset();
+	}
+
+	@Benchmark
+	public void observable(Blackhole blackhole) {
+		Observable.range(0, elements)
+			.map(v -> v + 1)
+			.filter(v -> (v & 1) == 0)
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public Integer observableObserveOn() {
+		// one thread hop, then a drain loop of every element on a computation thread
+		return Observable.range(0, elements)
+			.observeOn(Schedulers.computation())
+			.map(v -> v + 1)
+			.filter(v -> (v & 1) == 0)
+			.toBlocking()
+			.last();
+	}
+
+	@Benchmark
+	public void single(Blackhole blackhole) {
+		Single.just(1)
+			.map(v -> v + 1)
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public void completable(Blackhole blackhole) {
+		Completable.complete()
+			.doOnCompleted(() -> blackhole.consume(this))
+			.subscribe();
+	}
+}
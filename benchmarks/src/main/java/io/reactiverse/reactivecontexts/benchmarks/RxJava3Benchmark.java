@@ -0,0 +1,112 @@
+package io.reactiverse.reactivecontexts.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import io.reactiverse.reactivecontexts.propagators.rxjava3.RxJava3ContextPropagator;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Measures synchronous RxJava3 pipelines with and without the {@link RxJava3ContextPropagator} installed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RxJava3Benchmark {
+
+	@Param({"false", "true"})
+	public boolean propagation;
+
+	@Param({"1"})
+	public int providers;
+
+	@Param({"1000"})
+	public int elements;
+
+	@Setup
+	public void setup() {
+		// the global instance installs every propagator found on the classpath
+		Context.load();
+		RxJavaPlugins.reset();
+		ContextPropagator propagator = new RxJava3ContextPropagator();
+		Context.setThreadInstance(new Context(BenchmarkContextProvider.create(providers), 
+				propagation ? Collections.singletonList(propagator) : Collections.<ContextPropagator>emptyList()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		Context.clearThreadInstance();
+		RxJavaPlugins.reset();
+	}
+
+	@Benchmark
+	public void flowable(Blackhole blackhole) {
+		Flowable.range(0, elements)
+			.map(v -> v + 1)
+			.filter(v -> (v & 1) == 0)
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public void flowableFused(Blackhole blackhole) {
+		// observeOn fuses with the range/map upstream
+		Flowable.range(0, elements)
+			.map(v -> v + 1)
+			.observeOn(Schedulers.trampoline())
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public void observable(Blackhole blackhole) {
+		Observable.range(0, elements)
+			.map(v -> v + 1)
+			.filter(v -> (v & 1) == 0)
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public void single(Blackhole blackhole) {
+		Single.just(1)
+			.map(v -> v + 1)
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public void maybe(Blackhole blackhole) {
+		Maybe.just(1)
+			.map(v -> v + 1)
+			.subscribe(blackhole::consume);
+	}
+
+	@Benchmark
+	public void completable(Blackhole blackhole) {
+		Completable.complete()
+			.doOnComplete(() -> blackhole.consume(this))
+			.subscribe();
+	}
+}
@@ -0,0 +1,85 @@
+package io.reactiverse.reactivecontexts.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+
+/**
+ * Measures scheduling a timeout on a future which completes before it, with
+ * {@link Context#orTimeout(CompletableFuture, long, TimeUnit)}, and with a {@link ScheduledThreadPoolExecutor}
+ * task per future, as {@code CompletableFuture.orTimeout} does. Run with several threads to measure contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimeoutBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Scheduler {
+		ScheduledThreadPoolExecutor executor;
+
+		@Setup
+		public void setup() {
+			executor = new ScheduledThreadPoolExecutor(1);
+			// like CompletableFuture, so that cancelled timeouts do not pile up
+			executor.setRemoveOnCancelPolicy(true);
+		}
+
+		@TearDown
+		public void tearDown() {
+			executor.shutdown();
+		}
+	}
+
+	@Param({"1"})
+	public int providers;
+
+	@Setup
+	public void setup() {
+		Context.setThreadInstance(new Context(BenchmarkContextProvider.create(providers), Collections.<ContextPropagator>emptyList()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		Context.clearThreadInstance();
+	}
+
+	@Benchmark
+	public Integer wheelTimer() {
+		CompletableFuture<Integer> f = Context.orTimeout(new CompletableFuture<>(), 1, TimeUnit.SECONDS);
+		f.complete(0);
+		return f.join();
+	}
+
+	@Benchmark
+	public Integer scheduledExecutor(Scheduler scheduler) {
+		CompletableFuture<Integer> f = new CompletableFuture<>();
+		Runnable timeout = Context.wrap(() -> f.completeExceptionally(new TimeoutException()));
+		ScheduledFuture<?> task = scheduler.executor.schedule(timeout, 1, TimeUnit.SECONDS);
+		f.whenComplete((value, x) -> task.cancel(false));
+		f.complete(0);
+		return f.join();
+	}
+}
@@ -0,0 +1,157 @@
+package io.reactiverse.reactivecontexts.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+
+/**
+ * Measures the cost of wrapping each supported type with {@link Context#wrap(Runnable)} and friends, as well as
+ * the cost of invoking an already-wrapped functional type, including a primitive one compared to its boxed variant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WrapBenchmark {
+
+	@Param({"1"})
+	public int providers;
+
+	private Runnable runnable;
+	private Consumer<Object> consumer;
+	private BiConsumer<Object, Object> biConsumer;
+	private Function<Object, Object> function;
+	private BiFunction<Object, Object, Object> biFunction;
+	private CompletableFuture<Object> completableFuture;
+	private CompletionStage<Object> completionStage;
+
+	private Runnable wrappedRunnable;
+	private Consumer<Object> wrappedConsumer;
+	private BiConsumer<Object, Object> wrappedBiConsumer;
+	private Function<Object, Object> wrappedFunction;
+	private Function<Integer, Integer> wrappedBoxedFunction;
+	private IntUnaryOperator wrappedIntUnaryOperator;
+	// outside of the Integer cache, so that the boxed function allocates
+	private int value = 1000;
+	private BiFunction<Object, Object, Object> wrappedBiFunction;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		Context.setThreadInstance(new Context(BenchmarkContextProvider.create(providers), Collections.<ContextPropagator>emptyList()));
+		runnable = () -> blackhole.consume(this);
+		consumer = v -> blackhole.consume(v);
+		biConsumer = (t, u) -> blackhole.consume(t);
+		function = v -> v;
+		biFunction = (t, u) -> t;
+		completableFuture = new CompletableFuture<>();
+		completionStage = completableFuture;
+
+		wrappedRunnable = Context.wrap(runnable);
+		wrappedConsumer = Context.wrap(consumer);
+		wrappedBiConsumer = Context.wrap(biConsumer);
+		wrappedFunction = Context.wrap(function);
+		wrappedBiFunction = Context.wrap(biFunction);
+		wrappedBoxedFunction = Context.wrap((Function<Integer, Integer>) v -> v + 1);
+		wrappedIntUnaryOperator = Context.wrapIntUnaryOperator(v -> v + 1);
+	}
+
+	@TearDown
+	public void tearDown() {
+		Context.clearThreadInstance();
+	}
+
+	@Benchmark
+	public Runnable wrapRunnable() {
+		return Context.wrap(runnable);
+	}
+
+	@Benchmark
+	public Consumer<Object> wrapConsumer() {
+		return Context.wrap(consumer);
+	}
+
+	@Benchmark
+	public BiConsumer<Object, Object> wrapBiConsumer() {
+		return Context.wrap(biConsumer);
+	}
+
+	@Benchmark
+	public Function<Object, Object> wrapFunction() {
+		return Context.wrap(function);
+	}
+
+	@Benchmark
+	public BiFunction<Object, Object, Object> wrapBiFunction() {
+		return Context.wrap(biFunction);
+	}
+
+	@Benchmark
+	public CompletableFuture<Object> wrapCompletableFuture() {
+		return Context.wrap(completableFuture);
+	}
+
+	@Benchmark
+	public CompletionStage<Object> wrapCompletionStage() {
+		return Context.wrap(completionStage);
+	}
+
+	@Benchmark
+	public void invokeRunnable() {
+		wrappedRunnable.run();
+	}
+
+	@Benchmark
+	public void invokeConsumer() {
+		wrappedConsumer.accept(this);
+	}
+
+	@Benchmark
+	public void invokeBiConsumer() {
+		wrappedBiConsumer.accept(this, this);
+	}
+
+	@Benchmark
+	public Object invokeFunction() {
+		return wrappedFunction.apply(this);
+	}
+
+	@Benchmark
+	public Object invokeBiFunction() {
+		return wrappedBiFunction.apply(this, this);
+	}
+
+	@Benchmark
+	public int invokeBoxedFunction() {
+		return wrappedBoxedFunction.apply(value);
+	}
+
+	@Benchmark
+	public int invokeIntUnaryOperator() {
+		return wrappedIntUnaryOperator.applyAsInt(value);
+	}
+}
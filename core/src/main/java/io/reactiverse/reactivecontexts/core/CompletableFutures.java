@@ -0,0 +1,137 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Factories of {@link CompletableFuture} which run their handlers with a captured context state.
+ *
+ * @see Context#supplyAsync(Supplier)
+ * @see Context#allOf(CompletableFuture...)
+ */
+final class CompletableFutures {
+
+	private CompletableFutures() {
+	}
+
+	/**
+	 * Returns a new incomplete future which runs its handlers with the given state.
+	 */
+	static <T> CompletableFuture<T> newFuture(ContextState state) {
+		if(ContextCompletableFuture.SUPPORTED)
+			return ContextCompletableFuture.create(state);
+		return new CompletableFutureWrapper<T>(state, new CompletableFuture<>());
+	}
+
+	static Executor defaultExecutor() {
+		return ContextCompletableFuture.ASYNC_POOL;
+	}
+
+	static <T> CompletableFuture<T> supplyAsync(ContextState state, Supplier<T> supplier, Executor executor) {
+		if(supplier == null || executor == null)
+			throw new NullPointerException();
+		CompletableFuture<T> ret = newFuture(state);
+		executor.execute(Context.wrap(state, () -> complete(ret, supplier)));
+		return ret;
+	}
+
+	static CompletableFuture<Void> runAsync(ContextState state, Runnable runnable, Executor executor) {
+		if(runnable == null || executor == null)
+			throw new NullPointerException();
+		return supplyAsync(state, () -> {
+			runnable.run();
+			return null;
+		}, executor);
+	}
+
+	/**
+	 * Completes the given future with the value of the given supplier, unless it is already completed.
+	 */
+	static <T> void complete(CompletableFuture<T> f, Supplier<? extends T> supplier) {
+		if(f.isDone())
+			return;
+		try {
+			f.complete(supplier.get());
+		}catch(Throwable x) {
+			// like CompletableFuture.supplyAsync
+			f.completeExceptionally(x instanceof CompletionException ? x : new CompletionException(x));
+		}
+	}
+
+	static CompletableFuture<Void> allOf(ContextState state, CompletableFuture<?>... cfs) {
+		CompletableFuture<Void> ret = newFuture(state);
+		if(cfs.length == 0) {
+			ret.complete(null);
+			return ret;
+		}
+		AllOf allOf = new AllOf(ret, cfs.length);
+		for (CompletableFuture<?> cf : cfs) {
+			cf.whenComplete(allOf);
+		}
+		return ret;
+	}
+
+	static CompletableFuture<Object> anyOf(ContextState state, CompletableFuture<?>... cfs) {
+		CompletableFuture<Object> ret = newFuture(state);
+		AnyOf anyOf = new AnyOf(ret);
+		for (CompletableFuture<?> cf : cfs) {
+			cf.whenComplete(anyOf);
+			if(ret.isDone())
+				break;
+		}
+		return ret;
+	}
+
+	/**
+	 * Single completion registered on every future of {@link Context#allOf(CompletableFuture...)}, which completes
+	 * the result when it has been called for each of them.
+	 */
+	private static final class AllOf implements BiConsumer<Object, Throwable> {
+		private final CompletableFuture<Void> result;
+		private final AtomicInteger remaining;
+		// one of the exceptions, to complete the result with, like CompletableFuture.allOf
+		private volatile Throwable exception;
+
+		AllOf(CompletableFuture<Void> result, int count) {
+			this.result = result;
+			this.remaining = new AtomicInteger(count);
+		}
+
+		@Override
+		public void accept(Object value, Throwable x) {
+			if(x != null && exception == null)
+				exception = x;
+			if(remaining.decrementAndGet() != 0)
+				return;
+			Throwable exception = this.exception;
+			if(exception != null)
+				result.completeExceptionally(exception instanceof CompletionException ? exception : new CompletionException(exception));
+			else
+				result.complete(null);
+		}
+	}
+
+	/**
+	 * Single completion registered on every future of {@link Context#anyOf(CompletableFuture...)}, which completes
+	 * the result with the first of them to complete.
+	 */
+	private static final class AnyOf implements BiConsumer<Object, Throwable> {
+		private final CompletableFuture<Object> result;
+
+		AnyOf(CompletableFuture<Object> result) {
+			this.result = result;
+		}
+
+		@Override
+		public void accept(Object value, Throwable x) {
+			if(x != null)
+				result.completeExceptionally(x instanceof CompletionException ? x : new CompletionException(x));
+			else
+				result.complete(value);
+		}
+	}
+}
@@ -19,7 +19,7 @@ final class CompletionStageWrapper<T> implements CompletionStage<T> {
 
 	@Override
 	public CompletableFuture<T> toCompletableFuture() {
-		return Context.wrap(f.toCompletableFuture());
+		return Context.wrap(state, f.toCompletableFuture());
 	}
 
 	@Override
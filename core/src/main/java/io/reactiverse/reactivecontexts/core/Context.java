@@ -1,14 +1,62 @@
 package io.reactiverse.reactivecontexts.core;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongBiFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <p>
@@ -54,6 +102,11 @@ import java.util.function.Function;
  *  {@link #clearThreadInstance()}.
  * </p>
  * <p>
+ *  You can also add and remove {@link ContextProvider} and {@link ContextPropagator} at any time with
+ *  {@link #register(ContextProvider)} and {@link #unregister(ContextProvider)}, without having to create a new
+ *  Context and losing the states it captured.
+ * </p>
+ * <p>
  *  Note that each captured context state will restore the proper Context thread-local when
  *  calling {@link #install(ContextState)} and {@link #restore(ContextState)}, so as to avoid
  *  interference.
@@ -62,8 +115,12 @@ import java.util.function.Function;
  */
 public class Context {
 
+	// stored as a previous state for providers whose state was already installed, so they are not restored
+	static final Object NOT_INSTALLED = new Object();
+	private static final ContextProvider<?>[] NO_PROVIDERS = new ContextProvider<?>[0];
+	private static final ContextPropagator[] NO_PROPAGATORS = new ContextPropagator[0];
+
 	private static Context instance = new Context();
-	private static ThreadLocal<Context> threadInstance = new ThreadLocal<Context>();
 
 	/**
 	 * Initialises the list of registered {@link ContextProvider} and {@link ContextPropagator}
@@ -81,7 +138,7 @@ public class Context {
 	 * @see #setThreadInstance(Context)
 	 */
 	public static Context getInstance() {
-		Context ret = threadInstance.get();
+		Context ret = ContextStack.get().instance;
 		if(ret == null)
 			ret = instance;
 		return ret;
@@ -96,8 +153,9 @@ public class Context {
 	 * @see #clearThreadInstance()
 	 */
 	public static Context setThreadInstance(Context instance) {
-		Context oldInstance = threadInstance.get();
-		threadInstance.set(instance);
+		ContextStack stack = ContextStack.get();
+		Context oldInstance = stack.instance;
+		stack.instance = instance;
 		return oldInstance;
 	}
 
@@ -106,24 +164,277 @@ public class Context {
 	 * @see #setThreadInstance(Context)
 	 */
 	public static void clearThreadInstance() {
-		threadInstance.remove();
+		ContextStack.get().instance = null;
+	}
+
+	/**
+	 * Restricts every subsequent {@link #install(ContextState)} and {@link #enter(ContextState)} on the current thread
+	 * to the providers of the given mask, as if they were called with that mask, until the thread mask is set again.
+	 * This only affects the {@link Context} the mask was obtained from.
+	 * @param mask the mask to use on the current thread, or null to install every provider again
+	 * @return the previous mask of the current thread, or null
+	 * @see #mask(ContextKey...)
+	 */
+	public static ContextMask setThreadMask(ContextMask mask) {
+		ContextStack stack = ContextStack.get();
+		ContextMask oldMask = stack.mask;
+		stack.mask = mask;
+		return oldMask;
+	}
+
+	/**
+	 * @return the mask of the current thread set by {@link #setThreadMask(ContextMask)}, or null
+	 */
+	public static ContextMask getThreadMask() {
+		return ContextStack.get().mask;
 	}
 
-	private List<ContextProvider<?>> providers = new ArrayList<>();
-	private List<ContextPropagator> propagators = new ArrayList<>();
+	// copy-on-write: a provider keeps its slot for as long as it is registered, and unregistered slots are
+	// set to null until a new provider reuses them, so states are only installed into the slots of the providers
+	// they were captured with
+	private volatile ContextProvider<?>[] providers = NO_PROVIDERS;
+	private volatile ContextPropagator[] propagators = NO_PROPAGATORS;
+	private final Object registryLock = new Object();
+	private final LongAdder reentrantInstalls = new LongAdder();
+	// returned by install(ContextState) when the state is already installed, restoring it does nothing
+	private final ContextState alreadyInstalled = new ContextState(this, NO_PROVIDERS, new Object[0], null, null);
 	
 	/**
 	 * Creates a new Context instance with the associated {@link ContextProvider} and {@link ContextPropagator}
-	 * as looked up by {@link ServiceLoader#load(Class)} for the current classloader.
+	 * as listed by the generated {@link ContextPluginIndex} if there is one, or else as looked up by
+	 * {@link ServiceLoader#load(Class)} for the current classloader.
 	 */
 	public Context() {
-		for (ContextProvider<?> listener : ServiceLoader.load(ContextProvider.class)) {
-			providers.add(listener);
+		this(loadPluginIndex());
+	}
+
+	private Context(ContextPluginIndex index) {
+		this(index != null ? index.getProviders() : ServiceLoader.load(ContextProvider.class), 
+				index != null ? index.getPropagators() : ServiceLoader.load(ContextPropagator.class));
+	}
+
+	private static ContextPluginIndex loadPluginIndex() {
+		// same class loader as ServiceLoader.load(Class)
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		if(classLoader == null)
+			classLoader = ClassLoader.getSystemClassLoader();
+		Class<?> indexClass;
+		try {
+			indexClass = Class.forName(ContextPluginIndex.CLASS_NAME, true, classLoader);
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+		try {
+			return (ContextPluginIndex) indexClass.getConstructor().newInstance();
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IllegalStateException("Failed to load the context plugin index "+ContextPluginIndex.CLASS_NAME, e);
+		}
+	}
+
+	/**
+	 * Creates a new Context instance with the given {@link ContextProvider} and {@link ContextPropagator}.
+	 * Every {@link ContextPropagator} will be set up.
+	 * @param providers the list of {@link ContextProvider} to capture and install
+	 * @param propagators the list of {@link ContextPropagator} to set up
+	 */
+	@SuppressWarnings("rawtypes")
+	public Context(Iterable<? extends ContextProvider> providers, Iterable<? extends ContextPropagator> propagators) {
+		for (ContextProvider<?> listener : providers) {
+			register(listener);
+		}
+		for (ContextPropagator propagator : propagators) {
+			register(propagator);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Registers a new {@link ContextProvider}, whose context will be captured and installed along with
+	 * every other registered provider. This can be called at any time, from any thread.
+	 * </p>
+	 * <p>
+	 * Context states captured before the provider was registered do not contain its context, so installing
+	 * them leaves its context untouched.
+	 * </p>
+	 * @param provider the {@link ContextProvider} to register
+	 * @throws IllegalArgumentException if the provider is already registered.
+	 * @see #unregister(ContextProvider)
+	 */
+	public void register(ContextProvider<?> provider) {
+		synchronized(registryLock) {
+			ContextProvider<?>[] providers = this.providers;
+			for (ContextProvider<?> registered : providers) {
+				if(registered == provider)
+					throw new IllegalArgumentException("Provider already registered: "+provider);
+			}
+			ContextProvider<?>[] newProviders;
+			int slot = freeSlot(providers);
+			if(slot != -1) {
+				newProviders = providers.clone();
+			}else {
+				newProviders = Arrays.copyOf(providers, providers.length + 1);
+				slot = providers.length;
+			}
+			newProviders[slot] = provider;
+			this.providers = newProviders;
+		}
+	}
+
+	private static int freeSlot(ContextProvider<?>[] providers) {
+		for (int i = 0; i < providers.length; i++) {
+			if(providers[i] == null)
+				return i;
 		}
-		for (ContextPropagator propagator : ServiceLoader.load(ContextPropagator.class)) {
-			propagators.add(propagator);
+		return -1;
+	}
+
+	/**
+	 * <p>
+	 * Unregisters a {@link ContextProvider}, whose context will not be captured or installed anymore.
+	 * This can be called at any time, from any thread.
+	 * </p>
+	 * <p>
+	 * Context states captured before the provider was unregistered will skip its context when installed, but
+	 * states returned by {@link #install(ContextState)} while it was registered will still restore it.
+	 * </p>
+	 * @param provider the {@link ContextProvider} to unregister
+	 * @return true if the provider was registered
+	 * @see #register(ContextProvider)
+	 */
+	public boolean unregister(ContextProvider<?> provider) {
+		synchronized(registryLock) {
+			ContextProvider<?>[] providers = this.providers;
+			for (int i = 0; i < providers.length; i++) {
+				if(providers[i] == provider) {
+					ContextProvider<?>[] newProviders = providers.clone();
+					newProviders[i] = null;
+					this.providers = newProviders;
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Registers a new {@link ContextPropagator} and calls its {@link ContextPropagator#setup()} method.
+	 * This can be called at any time, from any thread.
+	 * @param propagator the {@link ContextPropagator} to register
+	 * @throws IllegalArgumentException if the propagator is already registered.
+	 * @see #unregister(ContextPropagator)
+	 */
+	public void register(ContextPropagator propagator) {
+		synchronized(registryLock) {
+			ContextPropagator[] propagators = this.propagators;
+			for (ContextPropagator registered : propagators) {
+				if(registered == propagator)
+					throw new IllegalArgumentException("Propagator already registered: "+propagator);
+			}
+			ContextPropagator[] newPropagators = Arrays.copyOf(propagators, propagators.length + 1);
+			newPropagators[propagators.length] = propagator;
 			propagator.setup();
+			this.propagators = newPropagators;
+		}
+	}
+
+	/**
+	 * Unregisters a {@link ContextPropagator} and calls its {@link ContextPropagator#teardown()} method.
+	 * This can be called at any time, from any thread.
+	 * @param propagator the {@link ContextPropagator} to unregister
+	 * @return true if the propagator was registered
+	 * @see #register(ContextPropagator)
+	 */
+	public boolean unregister(ContextPropagator propagator) {
+		synchronized(registryLock) {
+			ContextPropagator[] propagators = this.propagators;
+			for (int i = 0; i < propagators.length; i++) {
+				if(propagators[i] == propagator) {
+					ContextPropagator[] newPropagators = new ContextPropagator[propagators.length - 1];
+					System.arraycopy(propagators, 0, newPropagators, 0, i);
+					System.arraycopy(propagators, i + 1, newPropagators, i, newPropagators.length - i);
+					this.propagators = newPropagators;
+					propagator.teardown();
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Looks up the key of the registered {@link ContextProvider} of the given class, which can be used to read
+	 * its context from a captured {@link ContextState} with {@link ContextState#get(ContextKey)}, or from the current
+	 * thread with {@link #current(ContextKey)}.
+	 * @param providerClass the class of the registered {@link ContextProvider}
+	 * @param <T> the type of context state of the {@link ContextProvider}
+	 * @return the key for that {@link ContextProvider}
+	 * @throws IllegalArgumentException if no provider of that class is registered.
+	 * @see #key(ContextProvider)
+	 */
+	public <T> ContextKey<T> key(Class<? extends ContextProvider<T>> providerClass) {
+		ContextProvider<?>[] providers = this.providers;
+		for (int i = 0; i < providers.length; i++) {
+			if(providerClass.isInstance(providers[i]))
+				return new ContextKey<>(this, providerClass.cast(providers[i]), i);
+		}
+		throw new IllegalArgumentException("No context provider registered of "+providerClass);
+	}
+
+	/**
+	 * Looks up the key of the given registered {@link ContextProvider}.
+	 * @param provider the registered {@link ContextProvider}
+	 * @param <T> the type of context state of the {@link ContextProvider}
+	 * @return the key for that {@link ContextProvider}
+	 * @throws IllegalArgumentException if the provider is not registered.
+	 * @see #key(Class)
+	 */
+	public <T> ContextKey<T> key(ContextProvider<T> provider) {
+		ContextProvider<?>[] providers = this.providers;
+		for (int i = 0; i < providers.length; i++) {
+			if(providers[i] == provider)
+				return new ContextKey<>(this, provider, i);
+		}
+		throw new IllegalArgumentException("Context provider not registered: "+provider);
+	}
+
+	/**
+	 * Reads the current context of a single {@link ContextProvider} on the current thread, without capturing
+	 * any other context.
+	 * @param key the key of the {@link ContextProvider} to read, from {@link #key(Class)}
+	 * @param <T> the type of context state of the {@link ContextProvider}
+	 * @return the current context of that {@link ContextProvider}
+	 * @throws IllegalArgumentException if the key was not obtained from this {@link Context} instance.
+	 */
+	public <T> T current(ContextKey<T> key) {
+		if(this != key.getContext())
+			throw new IllegalArgumentException("Key was obtained from a different context");
+		return key.getProvider().capture();
+	}
+
+	/**
+	 * Creates a mask of the given providers, which can be used to only install their contexts with
+	 * {@link #install(ContextState, ContextMask)} or {@link #enter(ContextState, ContextMask)}.
+	 * @param keys the keys of the providers to install, from {@link #key(Class)}
+	 * @return the mask of those providers
+	 * @throws IllegalArgumentException if any key was not obtained from this {@link Context} instance.
+	 */
+	public ContextMask mask(ContextKey<?>... keys) {
+		int[] indices = new int[keys.length];
+		ContextProvider<?>[] maskedProviders = new ContextProvider<?>[keys.length];
+		int size = 0;
+		keys:
+		for (ContextKey<?> key : keys) {
+			if(this != key.getContext())
+				throw new IllegalArgumentException("Key was obtained from a different context");
+			for (int i = 0; i < size; i++) {
+				if(indices[i] == key.getIndex())
+					continue keys;
+			}
+			indices[size] = key.getIndex();
+			maskedProviders[size] = key.getProvider();
+			size++;
 		}
+		return new ContextMask(this, Arrays.copyOf(indices, size), Arrays.copyOf(maskedProviders, size));
 	}
 
 	/**
@@ -136,39 +447,109 @@ public class Context {
 	}
 	
 	/**
+	 * <p>
 	 * Captures all contexts currently registered via this {@link Context}'s {@link ContextProvider} plugins.
+	 * </p>
+	 * <p>
+	 * Context states are immutable, so as long as every {@link ContextProvider} captures the same
+	 * contexts as the last state captured or installed on the current thread, that state is returned rather
+	 * than a new identical one. The last captured state is kept by the current thread until the next capture, or
+	 * until the outermost state installed on the thread is restored, so that pooled threads do not retain it.
+	 * </p>
 	 * @return the storage required for all currently registered contexts.
 	 * @see #install(ContextState)
 	 */
 	public ContextState captureState() {
-		Object[] ret = new Object[providers.size()];
-		for (int i = 0; i < providers.size(); i++) {
-			ContextProvider<?> plugin = providers.get(i);
-			ret[i] = plugin.capture();
+		ContextStack stack = ContextStack.get();
+		ContextState cached = stack.current;
+		if(cached == null || cached.getContext() != this)
+			cached = stack.captured;
+		ContextProvider<?>[] providers = this.providers;
+		// only reuse states captured with the same providers
+		Object[] cachedStates = cached != null && cached.getContext() == this && cached.getProviders() == providers 
+				? cached.getState() : null;
+		Object[] ret = null;
+		int size = providers.length;
+		for (int i = 0; i < size; i++) {
+			ContextProvider<?> plugin = providers[i];
+			Object state = plugin != null ? plugin.capture() : null;
+			if(ret == null) {
+				if(cachedStates != null && cachedStates[i] == state)
+					continue;
+				// first change: copy what we already compared
+				ret = new Object[size];
+				if(cachedStates != null)
+					System.arraycopy(cachedStates, 0, ret, 0, i);
+			}
+			ret[i] = state;
 		}
-		return new ContextState(this, ret, threadInstance.get());
+		if(ret == null) {
+			if(cachedStates != null)
+				return cached;
+			ret = new Object[size];
+		}
+		ContextState state = new ContextState(this, providers, ret, stack.instance, null);
+		stack.captured = state;
+		return state;
 	}
 
 	/**
 	 * Installs a set of contexts previously captured with {@link #captureState()} to all
 	 * currently registered {@link ContextProvider} plugins in this {@link Context}.
+	 * Providers which report the state to install as already installed with {@link ContextProvider#isInstalled(Object)}
+	 * are skipped, and will not be restored either.
+	 * If the state is already installed on the current thread by an enclosing call to this method or
+	 * {@link #enter(ContextState)}, nothing is installed, and restoring the returned state does nothing.
 	 * @param state the context state previously captured with {@link #captureState()}
 	 * @return the (current/before installation) storage required for all currently registered contexts.
 	 * @see #captureState()
 	 * @see #restore(ContextState)
+	 * @see #getReentrantInstallCount()
 	 * @throws IllegalArgumentException if the state to install has not been captured by this {@link Context} instance.
+	 * @see #setThreadMask(ContextMask)
 	 */
 	public ContextState install(ContextState state) {
+		ContextStack stack = ContextStack.get();
+		return install(state, stack.mask, stack);
+	}
+
+	/**
+	 * Installs the contexts of the providers of the given mask from a set of contexts previously captured with
+	 * {@link #captureState()}, like {@link #install(ContextState)}, leaving every other context untouched.
+	 * @param state the context state previously captured with {@link #captureState()}
+	 * @param mask the providers to install, from {@link #mask(ContextKey...)}
+	 * @return the (current/before installation) storage required for the masked contexts.
+	 * @see #restore(ContextState)
+	 * @throws IllegalArgumentException if the state to install or the mask are not from this {@link Context} instance.
+	 */
+	public ContextState install(ContextState state, ContextMask mask) {
+		if(this != mask.getContext())
+			throw new IllegalArgumentException("Mask was obtained from a different context");
+		return install(state, mask, ContextStack.get());
+	}
+
+	private ContextState install(ContextState state, ContextMask mask, ContextStack stack) {
 		if(this != state.getContext())
 			throw new IllegalArgumentException("State was captured with different context");
-		Object[] oldStates = new Object[providers.size()];
-		Object[] states = state.getState();
-		for (int i = 0; i < providers.size(); i++) {
-			@SuppressWarnings("unchecked")
-			ContextProvider<Object> plugin = (ContextProvider<Object>) providers.get(i);
-			oldStates[i] = plugin.install(states[i]);
+		if(stack.current == state) {
+			reentrantInstalls.increment();
+			return alreadyInstalled;
 		}
-		return new ContextState(this, oldStates, setThreadInstance(this));
+		ContextProvider<?>[] providers = this.providers;
+		Object[] oldStates = new Object[providers.length];
+		ContextState previousState;
+		if(mask != null && mask.getContext() == this) {
+			install(providers, state, oldStates, mask);
+			previousState = new ContextState(this, providers, oldStates, stack.instance, stack.current);
+			// only part of the state is installed, so it must not be shared as the current state
+			stack.current = null;
+		}else {
+			install(providers, state, oldStates);
+			previousState = new ContextState(this, providers, oldStates, stack.instance, stack.current);
+			stack.current = state;
+		}
+		stack.instance = this;
+		return previousState;
 	}
 
 	/**
@@ -181,17 +562,177 @@ public class Context {
 	public void restore(ContextState state) {
 		if(this != state.getContext())
 			throw new IllegalArgumentException("State was captured with different context");
-		Object[] states = state.getState();
-		for (int i = 0; i < providers.size(); i++) {
-			@SuppressWarnings("unchecked")
-			ContextProvider<Object> plugin = (ContextProvider<Object>) providers.get(i);
-			plugin.restore(states[i]);
+		if(state == alreadyInstalled)
+			return;
+		restore(state.getProviders(), state.getState());
+		ContextStack stack = ContextStack.get();
+		stack.instance = state.getPreviousThreadContext();
+		stack.current = state.getPreviousCurrent();
+		if(stack.current == null)
+			stack.captured = null;
+	}
+
+	/**
+	 * Installs a set of contexts previously captured with {@link #captureState()} to all
+	 * currently registered {@link ContextProvider} plugins in this {@link Context}, like
+	 * {@link #install(ContextState)}, except the previous contexts are stored in a reusable per-thread
+	 * stack rather than returned, so that this does not allocate. Every call to this method must be
+	 * followed by a call to {@link #exit(ContextState)} with the same state, on the same thread, typically in
+	 * a <code>finally</code> block:
+	 * 
+	 *  <pre><code>
+	 * context.enter(state);
+	 * try{
+	 *     // your context-requiring code
+	 * }finally{
+	 *     context.exit(state);
+	 * }
+	 *  </code></pre>
+	 * <p>
+	 * If the state is already installed on the current thread by an enclosing call to this method or
+	 * {@link #install(ContextState)}, this only costs an identity check, and nothing is installed or restored.
+	 * </p>
+	 * @param state the context state previously captured with {@link #captureState()}
+	 * @see #exit(ContextState)
+	 * @see #getReentrantInstallCount()
+	 * @throws IllegalArgumentException if the state to install has not been captured by this {@link Context} instance.
+	 * @see #setThreadMask(ContextMask)
+	 */
+	public void enter(ContextState state) {
+		ContextStack stack = ContextStack.get();
+		enter(state, stack.mask, stack);
+	}
+
+	/**
+	 * Installs the contexts of the providers of the given mask from a set of contexts previously captured with
+	 * {@link #captureState()}, like {@link #enter(ContextState)}, leaving every other context untouched. Every
+	 * call to this method must be followed by a call to {@link #exit(ContextState)} with the same state.
+	 * @param state the context state previously captured with {@link #captureState()}
+	 * @param mask the providers to install, from {@link #mask(ContextKey...)}
+	 * @see #exit(ContextState)
+	 * @throws IllegalArgumentException if the state to install or the mask are not from this {@link Context} instance.
+	 */
+	public void enter(ContextState state, ContextMask mask) {
+		if(this != mask.getContext())
+			throw new IllegalArgumentException("Mask was obtained from a different context");
+		enter(state, mask, ContextStack.get());
+	}
+
+	private void enter(ContextState state, ContextMask mask, ContextStack stack) {
+		if(this != state.getContext())
+			throw new IllegalArgumentException("State was captured with different context");
+		ContextStack.Frame frame = stack.next();
+		frame.state = state;
+		if(stack.current == state) {
+			reentrantInstalls.increment();
+			frame.installed = false;
+			stack.push();
+			return;
 		}
-		Context previousThreadContext = state.getPreviousThreadContext();
-		if(previousThreadContext == null)
-			clearThreadInstance();
+		ContextProvider<?>[] providers = this.providers;
+		boolean masked = mask != null && mask.getContext() == this;
+		if(masked)
+			install(providers, state, frame.previousStates(providers.length), mask);
 		else
-			setThreadInstance(previousThreadContext);
+			install(providers, state, frame.previousStates(providers.length));
+		frame.providers = providers;
+		frame.installed = true;
+		frame.previousThreadContext = stack.instance;
+		frame.previousCurrent = stack.current;
+		stack.instance = this;
+		// only part of a masked state is installed, so it must not be shared as the current state
+		stack.current = masked ? null : state;
+		stack.push();
+	}
+
+	/**
+	 * Restores the contexts which were current before the matching call to {@link #enter(ContextState)}.
+	 * @param state the context state which was passed to {@link #enter(ContextState)}
+	 * @see #enter(ContextState)
+	 * @throws IllegalArgumentException if the state to install has not been captured by this {@link Context} instance.
+	 * @throws IllegalStateException if the state is not the last state entered on this thread.
+	 */
+	public void exit(ContextState state) {
+		if(this != state.getContext())
+			throw new IllegalArgumentException("State was captured with different context");
+		ContextStack stack = ContextStack.get();
+		ContextStack.Frame frame = stack.peek();
+		if(frame == null || frame.state != state)
+			throw new IllegalStateException("State is not the last state entered on this thread");
+		frame.state = null;
+		if(!frame.installed) {
+			stack.pop();
+			return;
+		}
+		Object[] previousStates = frame.previousStates;
+		ContextProvider<?>[] providers = frame.providers;
+		restore(providers, previousStates);
+		Arrays.fill(previousStates, 0, providers.length, null);
+		frame.providers = null;
+		stack.instance = frame.previousThreadContext;
+		stack.current = frame.previousCurrent;
+		if(stack.current == null)
+			stack.captured = null;
+		frame.previousThreadContext = null;
+		frame.previousCurrent = null;
+		stack.pop();
+	}
+
+	/**
+	 * Installs the given state, which may have been captured with a different set of providers. Slots of
+	 * unregistered providers are skipped, and providers registered after the state was captured, possibly in
+	 * the slot of an unregistered one, are left untouched.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void install(ContextProvider<?>[] providers, ContextState state, Object[] previousStates) {
+		ContextProvider<?>[] stateProviders = state.getProviders();
+		Object[] states = state.getState();
+		for (int i = 0; i < providers.length; i++) {
+			ContextProvider<Object> plugin = (ContextProvider<Object>) providers[i];
+			if(plugin == null || i >= states.length || stateProviders[i] != plugin || plugin.isInstalled(states[i]))
+				previousStates[i] = NOT_INSTALLED;
+			else
+				previousStates[i] = plugin.install(states[i]);
+		}
+	}
+
+	/**
+	 * Installs the given states for the providers of the given mask only, skipping those which were unregistered
+	 * since the mask was created.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void install(ContextProvider<?>[] providers, ContextState state, Object[] previousStates, ContextMask mask) {
+		ContextProvider<?>[] stateProviders = state.getProviders();
+		Object[] states = state.getState();
+		Arrays.fill(previousStates, 0, providers.length, NOT_INSTALLED);
+		int[] indices = mask.getIndices();
+		ContextProvider<?>[] maskedProviders = mask.getProviders();
+		for (int j = 0; j < indices.length; j++) {
+			int i = indices[j];
+			ContextProvider<Object> plugin = (ContextProvider<Object>) maskedProviders[j];
+			if(i < providers.length && providers[i] == plugin && i < states.length && stateProviders[i] == plugin
+					&& !plugin.isInstalled(states[i]))
+				previousStates[i] = plugin.install(states[i]);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void restore(ContextProvider<?>[] providers, Object[] previousStates) {
+		for (int i = 0; i < providers.length; i++) {
+			ContextProvider<Object> plugin = (ContextProvider<Object>) providers[i];
+			if(plugin != null && previousStates[i] != NOT_INSTALLED)
+				plugin.restore(previousStates[i]);
+		}
+	}
+
+	/**
+	 * Returns the number of times {@link #install(ContextState)} or {@link #enter(ContextState)} were called with
+	 * a state that was already installed on the current thread, and thus skipped installing and restoring
+	 * any context.
+	 * @return the number of skipped installations since this {@link Context} was created.
+	 */
+	public long getReentrantInstallCount() {
+		return reentrantInstalls.sum();
 	}
 
 	/**
@@ -206,11 +747,22 @@ public class Context {
 	
 	static Runnable wrap(ContextState state, Runnable f) {
 		return () -> {
-			ContextState oldState = state.install();
+			state.enter();
 			try {
 				f.run();
 			}finally {
-				oldState.restore();
+				state.exit();
+			}
+		};
+	}
+
+	static <T> Callable<T> wrap(ContextState state, Callable<T> f) {
+		return () -> {
+			state.enter();
+			try {
+				return f.call();
+			}finally {
+				state.exit();
 			}
 		};
 	}
@@ -227,11 +779,11 @@ public class Context {
 	
 	static <T> Consumer<T> wrap(ContextState state, Consumer<T> f) {
 		return v -> {
-			ContextState oldState = state.install();
+			state.enter();
 			try {
 				f.accept(v);
 			}finally {
-				oldState.restore();
+				state.exit();
 			}
 		};
 	}
@@ -248,11 +800,11 @@ public class Context {
 	
 	static <T, U> BiConsumer<T, U> wrap(ContextState state, BiConsumer<T, U> f) {
 		return (t, u) -> {
-			ContextState oldState = state.install();
+			state.enter();
 			try {
 				f.accept(t, u);
 			}finally {
-				oldState.restore();
+				state.exit();
 			}
 		};
 	}
@@ -269,11 +821,11 @@ public class Context {
 
 	static <T, U, V> BiFunction<T, U, V> wrap(ContextState state, BiFunction<T, U, V> fn){
 		return (t, u) -> {
-			ContextState oldState = state.install();
+			state.enter();
 			try {
 				return fn.apply(t, u);
 			}finally {
-				oldState.restore();
+				state.exit();
 			}
 		};
 	}
@@ -290,27 +842,911 @@ public class Context {
 
 	static <T, U> Function<T, U> wrap(ContextState state, Function<T, U> fn){
 		return v -> {
-			ContextState oldState = state.install();
+			state.enter();
 			try {
 				return fn.apply(v);
 			}finally {
-				oldState.restore();
+				state.exit();
 			}
 		};
 	}
 
 	/**
-	 * Wraps a {@link CompletableFuture} so that all its handlers
-	 * are called with the current reactive context.
-	 * @param f the {@link CompletableFuture} to wrap
-	 * @return a {@link CompletableFuture} which will have its reactive context set to the current context.
+	 * Wraps a {@link Supplier} so that its {@link Supplier#get()} method will
+	 * be called with the current reactive context. This is not an overload of {@link #wrap(Runnable)}, so that
+	 * {@code Context.wrap(() -> expression)} keeps returning a {@link Runnable}. Likewise, the wrappers of
+	 * the other functional interfaces are named after them, so that lambdas passed to {@link #wrap(Function)}
+	 * or {@link #wrap(Consumer)} do not become ambiguous, and each captures the current context the same way.
+	 * @param fn the {@link Supplier} to wrap
+	 * @return a {@link Supplier} which will have its reactive context set to the current context.
 	 */
-	public static <T> CompletableFuture<T> wrap(CompletableFuture<T> f) {
-		return wrap(capture(), f);
+	public static <T> Supplier<T> wrapSupplier(Supplier<T> fn) {
+		return wrapSupplier(capture(), fn);
 	}
 
-	static <T> CompletableFuture<T> wrap(ContextState state, CompletableFuture<T> f) {
-		return new CompletableFutureWrapper<T>(state, f);
+	/**
+	 * Wraps a {@link Callable}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> Callable<T> wrapCallable(Callable<T> fn) {
+		return wrap(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link BooleanSupplier}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static BooleanSupplier wrapBooleanSupplier(BooleanSupplier fn) {
+		return wrapBooleanSupplier(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link IntSupplier}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static IntSupplier wrapIntSupplier(IntSupplier fn) {
+		return wrapIntSupplier(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link LongSupplier}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static LongSupplier wrapLongSupplier(LongSupplier fn) {
+		return wrapLongSupplier(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link DoubleSupplier}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static DoubleSupplier wrapDoubleSupplier(DoubleSupplier fn) {
+		return wrapDoubleSupplier(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link Predicate}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> Predicate<T> wrapPredicate(Predicate<T> fn) {
+		return wrapPredicate(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link BiPredicate}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T, U> BiPredicate<T, U> wrapBiPredicate(BiPredicate<T, U> fn) {
+		return wrapBiPredicate(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link UnaryOperator}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> UnaryOperator<T> wrapUnaryOperator(UnaryOperator<T> fn) {
+		return wrapUnaryOperator(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link BinaryOperator}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> BinaryOperator<T> wrapBinaryOperator(BinaryOperator<T> fn) {
+		return wrapBinaryOperator(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link IntConsumer}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static IntConsumer wrapIntConsumer(IntConsumer fn) {
+		return wrapIntConsumer(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link LongConsumer}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static LongConsumer wrapLongConsumer(LongConsumer fn) {
+		return wrapLongConsumer(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link DoubleConsumer}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static DoubleConsumer wrapDoubleConsumer(DoubleConsumer fn) {
+		return wrapDoubleConsumer(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link ObjIntConsumer}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> ObjIntConsumer<T> wrapObjIntConsumer(ObjIntConsumer<T> fn) {
+		return wrapObjIntConsumer(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link ObjLongConsumer}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> ObjLongConsumer<T> wrapObjLongConsumer(ObjLongConsumer<T> fn) {
+		return wrapObjLongConsumer(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link ObjDoubleConsumer}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> ObjDoubleConsumer<T> wrapObjDoubleConsumer(ObjDoubleConsumer<T> fn) {
+		return wrapObjDoubleConsumer(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link IntFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <R> IntFunction<R> wrapIntFunction(IntFunction<R> fn) {
+		return wrapIntFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link LongFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <R> LongFunction<R> wrapLongFunction(LongFunction<R> fn) {
+		return wrapLongFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link DoubleFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <R> DoubleFunction<R> wrapDoubleFunction(DoubleFunction<R> fn) {
+		return wrapDoubleFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link ToIntFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> ToIntFunction<T> wrapToIntFunction(ToIntFunction<T> fn) {
+		return wrapToIntFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link ToLongFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> ToLongFunction<T> wrapToLongFunction(ToLongFunction<T> fn) {
+		return wrapToLongFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link ToDoubleFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T> ToDoubleFunction<T> wrapToDoubleFunction(ToDoubleFunction<T> fn) {
+		return wrapToDoubleFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link ToIntBiFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T, U> ToIntBiFunction<T, U> wrapToIntBiFunction(ToIntBiFunction<T, U> fn) {
+		return wrapToIntBiFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link ToLongBiFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T, U> ToLongBiFunction<T, U> wrapToLongBiFunction(ToLongBiFunction<T, U> fn) {
+		return wrapToLongBiFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link ToDoubleBiFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static <T, U> ToDoubleBiFunction<T, U> wrapToDoubleBiFunction(ToDoubleBiFunction<T, U> fn) {
+		return wrapToDoubleBiFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link IntPredicate}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static IntPredicate wrapIntPredicate(IntPredicate fn) {
+		return wrapIntPredicate(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link LongPredicate}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static LongPredicate wrapLongPredicate(LongPredicate fn) {
+		return wrapLongPredicate(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link DoublePredicate}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static DoublePredicate wrapDoublePredicate(DoublePredicate fn) {
+		return wrapDoublePredicate(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link IntUnaryOperator}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static IntUnaryOperator wrapIntUnaryOperator(IntUnaryOperator fn) {
+		return wrapIntUnaryOperator(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link LongUnaryOperator}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static LongUnaryOperator wrapLongUnaryOperator(LongUnaryOperator fn) {
+		return wrapLongUnaryOperator(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link DoubleUnaryOperator}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static DoubleUnaryOperator wrapDoubleUnaryOperator(DoubleUnaryOperator fn) {
+		return wrapDoubleUnaryOperator(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link IntBinaryOperator}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static IntBinaryOperator wrapIntBinaryOperator(IntBinaryOperator fn) {
+		return wrapIntBinaryOperator(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link LongBinaryOperator}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static LongBinaryOperator wrapLongBinaryOperator(LongBinaryOperator fn) {
+		return wrapLongBinaryOperator(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link DoubleBinaryOperator}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static DoubleBinaryOperator wrapDoubleBinaryOperator(DoubleBinaryOperator fn) {
+		return wrapDoubleBinaryOperator(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link IntToLongFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static IntToLongFunction wrapIntToLongFunction(IntToLongFunction fn) {
+		return wrapIntToLongFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps an {@link IntToDoubleFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static IntToDoubleFunction wrapIntToDoubleFunction(IntToDoubleFunction fn) {
+		return wrapIntToDoubleFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link LongToIntFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static LongToIntFunction wrapLongToIntFunction(LongToIntFunction fn) {
+		return wrapLongToIntFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link LongToDoubleFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static LongToDoubleFunction wrapLongToDoubleFunction(LongToDoubleFunction fn) {
+		return wrapLongToDoubleFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link DoubleToIntFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static DoubleToIntFunction wrapDoubleToIntFunction(DoubleToIntFunction fn) {
+		return wrapDoubleToIntFunction(capture(), fn);
+	}
+
+	/**
+	 * Wraps a {@link DoubleToLongFunction}, like {@link #wrapSupplier(Supplier)}.
+	 */
+	public static DoubleToLongFunction wrapDoubleToLongFunction(DoubleToLongFunction fn) {
+		return wrapDoubleToLongFunction(capture(), fn);
+	}
+
+	static <T> Supplier<T> wrapSupplier(ContextState state, Supplier<T> fn) {
+		return () -> {
+			state.enter();
+			try {
+				return fn.get();
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static BooleanSupplier wrapBooleanSupplier(ContextState state, BooleanSupplier fn) {
+		return () -> {
+			state.enter();
+			try {
+				return fn.getAsBoolean();
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static IntSupplier wrapIntSupplier(ContextState state, IntSupplier fn) {
+		return () -> {
+			state.enter();
+			try {
+				return fn.getAsInt();
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static LongSupplier wrapLongSupplier(ContextState state, LongSupplier fn) {
+		return () -> {
+			state.enter();
+			try {
+				return fn.getAsLong();
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static DoubleSupplier wrapDoubleSupplier(ContextState state, DoubleSupplier fn) {
+		return () -> {
+			state.enter();
+			try {
+				return fn.getAsDouble();
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T> Predicate<T> wrapPredicate(ContextState state, Predicate<T> fn) {
+		return t -> {
+			state.enter();
+			try {
+				return fn.test(t);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T, U> BiPredicate<T, U> wrapBiPredicate(ContextState state, BiPredicate<T, U> fn) {
+		return (t, u) -> {
+			state.enter();
+			try {
+				return fn.test(t, u);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T> UnaryOperator<T> wrapUnaryOperator(ContextState state, UnaryOperator<T> fn) {
+		return t -> {
+			state.enter();
+			try {
+				return fn.apply(t);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T> BinaryOperator<T> wrapBinaryOperator(ContextState state, BinaryOperator<T> fn) {
+		return (t, u) -> {
+			state.enter();
+			try {
+				return fn.apply(t, u);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static IntConsumer wrapIntConsumer(ContextState state, IntConsumer fn) {
+		return value -> {
+			state.enter();
+			try {
+				fn.accept(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static LongConsumer wrapLongConsumer(ContextState state, LongConsumer fn) {
+		return value -> {
+			state.enter();
+			try {
+				fn.accept(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static DoubleConsumer wrapDoubleConsumer(ContextState state, DoubleConsumer fn) {
+		return value -> {
+			state.enter();
+			try {
+				fn.accept(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T> ObjIntConsumer<T> wrapObjIntConsumer(ContextState state, ObjIntConsumer<T> fn) {
+		return (t, value) -> {
+			state.enter();
+			try {
+				fn.accept(t, value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T> ObjLongConsumer<T> wrapObjLongConsumer(ContextState state, ObjLongConsumer<T> fn) {
+		return (t, value) -> {
+			state.enter();
+			try {
+				fn.accept(t, value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T> ObjDoubleConsumer<T> wrapObjDoubleConsumer(ContextState state, ObjDoubleConsumer<T> fn) {
+		return (t, value) -> {
+			state.enter();
+			try {
+				fn.accept(t, value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <R> IntFunction<R> wrapIntFunction(ContextState state, IntFunction<R> fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.apply(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <R> LongFunction<R> wrapLongFunction(ContextState state, LongFunction<R> fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.apply(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <R> DoubleFunction<R> wrapDoubleFunction(ContextState state, DoubleFunction<R> fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.apply(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T> ToIntFunction<T> wrapToIntFunction(ContextState state, ToIntFunction<T> fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.applyAsInt(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T> ToLongFunction<T> wrapToLongFunction(ContextState state, ToLongFunction<T> fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.applyAsLong(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T> ToDoubleFunction<T> wrapToDoubleFunction(ContextState state, ToDoubleFunction<T> fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.applyAsDouble(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T, U> ToIntBiFunction<T, U> wrapToIntBiFunction(ContextState state, ToIntBiFunction<T, U> fn) {
+		return (t, u) -> {
+			state.enter();
+			try {
+				return fn.applyAsInt(t, u);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T, U> ToLongBiFunction<T, U> wrapToLongBiFunction(ContextState state, ToLongBiFunction<T, U> fn) {
+		return (t, u) -> {
+			state.enter();
+			try {
+				return fn.applyAsLong(t, u);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static <T, U> ToDoubleBiFunction<T, U> wrapToDoubleBiFunction(ContextState state, ToDoubleBiFunction<T, U> fn) {
+		return (t, u) -> {
+			state.enter();
+			try {
+				return fn.applyAsDouble(t, u);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static IntPredicate wrapIntPredicate(ContextState state, IntPredicate fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.test(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static LongPredicate wrapLongPredicate(ContextState state, LongPredicate fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.test(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static DoublePredicate wrapDoublePredicate(ContextState state, DoublePredicate fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.test(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static IntUnaryOperator wrapIntUnaryOperator(ContextState state, IntUnaryOperator fn) {
+		return operand -> {
+			state.enter();
+			try {
+				return fn.applyAsInt(operand);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static LongUnaryOperator wrapLongUnaryOperator(ContextState state, LongUnaryOperator fn) {
+		return operand -> {
+			state.enter();
+			try {
+				return fn.applyAsLong(operand);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static DoubleUnaryOperator wrapDoubleUnaryOperator(ContextState state, DoubleUnaryOperator fn) {
+		return operand -> {
+			state.enter();
+			try {
+				return fn.applyAsDouble(operand);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static IntBinaryOperator wrapIntBinaryOperator(ContextState state, IntBinaryOperator fn) {
+		return (left, right) -> {
+			state.enter();
+			try {
+				return fn.applyAsInt(left, right);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static LongBinaryOperator wrapLongBinaryOperator(ContextState state, LongBinaryOperator fn) {
+		return (left, right) -> {
+			state.enter();
+			try {
+				return fn.applyAsLong(left, right);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static DoubleBinaryOperator wrapDoubleBinaryOperator(ContextState state, DoubleBinaryOperator fn) {
+		return (left, right) -> {
+			state.enter();
+			try {
+				return fn.applyAsDouble(left, right);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static IntToLongFunction wrapIntToLongFunction(ContextState state, IntToLongFunction fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.applyAsLong(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static IntToDoubleFunction wrapIntToDoubleFunction(ContextState state, IntToDoubleFunction fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.applyAsDouble(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static LongToIntFunction wrapLongToIntFunction(ContextState state, LongToIntFunction fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.applyAsInt(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static LongToDoubleFunction wrapLongToDoubleFunction(ContextState state, LongToDoubleFunction fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.applyAsDouble(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static DoubleToIntFunction wrapDoubleToIntFunction(ContextState state, DoubleToIntFunction fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.applyAsInt(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	static DoubleToLongFunction wrapDoubleToLongFunction(ContextState state, DoubleToLongFunction fn) {
+		return value -> {
+			state.enter();
+			try {
+				return fn.applyAsLong(value);
+			}finally {
+				state.exit();
+			}
+		};
+	}
+
+	/**
+	 * Wraps an {@link ExecutorService} so that every task submitted to it runs with the reactive context
+	 * that was current when it was submitted. The tasks given to {@link ExecutorService#invokeAll(java.util.Collection)}
+	 * or {@link ExecutorService#invokeAny(java.util.Collection)} share the state captured once for the call.
+	 * @param executor the {@link ExecutorService} to wrap
+	 * @return an {@link ExecutorService} which captures the current context for every task it is given.
+	 */
+	public static ExecutorService wrap(ExecutorService executor) {
+		return new ExecutorServiceWrapper(executor);
+	}
+
+	/**
+	 * Wraps a {@link ScheduledExecutorService} so that every task submitted or scheduled on it runs with the
+	 * reactive context that was current when it was submitted. Periodic tasks capture it once, and install it
+	 * around every run.
+	 * @param executor the {@link ScheduledExecutorService} to wrap
+	 * @return a {@link ScheduledExecutorService} which captures the current context for every task it is given.
+	 * @see #wrap(ExecutorService)
+	 */
+	public static ScheduledExecutorService wrap(ScheduledExecutorService executor) {
+		return new ScheduledExecutorServiceWrapper(executor);
+	}
+
+	/**
+	 * Creates a {@link ForkJoinPool} which runs every task submitted to it from outside the pool with the reactive
+	 * context that was current when it was submitted. Tasks forked from within the pool are not wrapped.
+	 * @param parallelism the parallelism level of the pool
+	 * @return a new {@link ForkJoinPool} which captures the current context for every task it is given.
+	 * @see #parallel(Stream)
+	 */
+	public static ForkJoinPool newForkJoinPool(int parallelism) {
+		return new ContextForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Creates an {@link ExecutorService} which starts a new virtual thread for each task, and runs it with the
+	 * reactive context that was current when it was submitted, as if wrapped with {@link #wrap(ExecutorService)}.
+	 * @return a new virtual thread {@link ExecutorService} which captures the current context for every task it is given.
+	 * @throws UnsupportedOperationException if not running on Java 21 or later.
+	 */
+	public static ExecutorService newVirtualThreadPerTaskExecutor() {
+		return VirtualThreads.newVirtualThreadPerTaskExecutor();
+	}
+
+	/**
+	 * Returns a parallel stream of the elements of the given stream, whose operations run with the current
+	 * reactive context on every fork/join worker thread. The context is installed once for each split of the stream
+	 * traversed by a worker, rather than once per element, except for short-circuiting operations such as
+	 * {@link Stream#findFirst()}, which traverse elements one by one. Functions which are not called during the
+	 * traversal, such as reduction combiners, do not get the context.
+	 * @param stream the stream to propagate the current context to
+	 * @return a parallel stream which will have its reactive context set to the current context.
+	 */
+	public static <T> Stream<T> parallel(Stream<T> stream) {
+		ContextSpliterator<T> spliterator = new ContextSpliterator<>(capture(), stream.spliterator());
+		return StreamSupport.stream(spliterator, true).onClose(stream::close);
+	}
+
+	/**
+	 * Wraps a {@link CompletableFuture} so that all its handlers
+	 * are called with the current reactive context. On Java 9 and later, the stages which depend on the returned
+	 * future carry the same context themselves, and wrapping a future returned by this method again with the same
+	 * context returns it as is.
+	 * @param f the {@link CompletableFuture} to wrap
+	 * @return a {@link CompletableFuture} which will have its reactive context set to the current context.
+	 */
+	public static <T> CompletableFuture<T> wrap(CompletableFuture<T> f) {
+		return wrap(capture(), f);
+	}
+
+	static <T> CompletableFuture<T> wrap(ContextState state, CompletableFuture<T> f) {
+		if(ContextCompletableFuture.SUPPORTED)
+			return ContextCompletableFuture.wrap(state, f);
+		return new CompletableFutureWrapper<T>(state, f);
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} completed with the value of the given supplier, which runs with the
+	 * current reactive context on the default executor of {@link CompletableFuture}. The handlers of the returned
+	 * future run with the same context, as if it was wrapped with {@link #wrap(CompletableFuture)}.
+	 * @param supplier the {@link Supplier} of the value of the returned future
+	 * @return a new {@link CompletableFuture} which will have its reactive context set to the current context.
+	 * @see CompletableFuture#supplyAsync(Supplier)
+	 */
+	public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+		return supplyAsync(supplier, CompletableFutures.defaultExecutor());
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} completed with the value of the given supplier, like
+	 * {@link #supplyAsync(Supplier)}, except the supplier runs on the given executor.
+	 * @param supplier the {@link Supplier} of the value of the returned future
+	 * @param executor the {@link Executor} to run the supplier on
+	 * @return a new {@link CompletableFuture} which will have its reactive context set to the current context.
+	 * @see CompletableFuture#supplyAsync(Supplier, Executor)
+	 */
+	public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+		return CompletableFutures.supplyAsync(capture(), supplier, executor);
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} completed after running the given task with the current reactive context
+	 * on the default executor of {@link CompletableFuture}, like {@link #supplyAsync(Supplier)}.
+	 * @param runnable the task to run
+	 * @return a new {@link CompletableFuture} which will have its reactive context set to the current context.
+	 * @see CompletableFuture#runAsync(Runnable)
+	 */
+	public static CompletableFuture<Void> runAsync(Runnable runnable) {
+		return runAsync(runnable, CompletableFutures.defaultExecutor());
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} completed after running the given task with the current reactive context
+	 * on the given executor, like {@link #supplyAsync(Supplier, Executor)}.
+	 * @param runnable the task to run
+	 * @param executor the {@link Executor} to run the task on
+	 * @return a new {@link CompletableFuture} which will have its reactive context set to the current context.
+	 * @see CompletableFuture#runAsync(Runnable, Executor)
+	 */
+	public static CompletableFuture<Void> runAsync(Runnable runnable, Executor executor) {
+		return CompletableFutures.runAsync(capture(), runnable, executor);
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} which completes when all the given futures complete, like
+	 * {@link CompletableFuture#allOf(CompletableFuture...)}, and whose handlers run with the current reactive context.
+	 * A single counting completion is registered on every given future, rather than a tree of futures.
+	 * @param cfs the futures to wait for
+	 * @return a new {@link CompletableFuture} which will have its reactive context set to the current context.
+	 */
+	public static CompletableFuture<Void> allOf(CompletableFuture<?>... cfs) {
+		return CompletableFutures.allOf(capture(), cfs);
+	}
+
+	/**
+	 * Returns a new {@link CompletableFuture} which completes with the first of the given futures to complete, like
+	 * {@link CompletableFuture#anyOf(CompletableFuture...)}, and whose handlers run with the current reactive context.
+	 * @param cfs the futures to wait for
+	 * @return a new {@link CompletableFuture} which will have its reactive context set to the current context.
+	 */
+	public static CompletableFuture<Object> anyOf(CompletableFuture<?>... cfs) {
+		return CompletableFutures.anyOf(capture(), cfs);
+	}
+
+	/**
+	 * Completes the given future exceptionally with a {@link TimeoutException} if it is not otherwise completed
+	 * before the given timeout, like {@code CompletableFuture.orTimeout} from Java 9, but with the current reactive
+	 * context, so that the handlers which the timeout triggers see it. Timeouts are scheduled on a single shared
+	 * timer, and may complete the future up to 10 milliseconds late.
+	 * @param f the {@link CompletableFuture} to time out
+	 * @param timeout how long to wait before completing the future, in units of {@code unit}
+	 * @param unit the unit of {@code timeout}
+	 * @return the given future
+	 * @see #completeOnTimeout(CompletableFuture, Object, long, TimeUnit)
+	 */
+	public static <T> CompletableFuture<T> orTimeout(CompletableFuture<T> f, long timeout, TimeUnit unit) {
+		return onTimeout(capture(), f, () -> f.completeExceptionally(new TimeoutException()), timeout, unit);
+	}
+
+	/**
+	 * Completes the given future with the given value if it is not otherwise completed before the given timeout,
+	 * like {@code CompletableFuture.completeOnTimeout} from Java 9, but with the current reactive context, as
+	 * {@link #orTimeout(CompletableFuture, long, TimeUnit)} does.
+	 * @param f the {@link CompletableFuture} to time out
+	 * @param value the value to complete the future with on timeout
+	 * @param timeout how long to wait before completing the future, in units of {@code unit}
+	 * @param unit the unit of {@code timeout}
+	 * @return the given future
+	 */
+	public static <T> CompletableFuture<T> completeOnTimeout(CompletableFuture<T> f, T value, long timeout, TimeUnit unit) {
+		return onTimeout(capture(), f, () -> f.complete(value), timeout, unit);
+	}
+
+	private static <T> CompletableFuture<T> onTimeout(ContextState state, CompletableFuture<T> f, Runnable task, long timeout, TimeUnit unit) {
+		if(unit == null)
+			throw new NullPointerException();
+		if(!f.isDone()) {
+			// cancelled as soon as the future completes, so it does not hold it until its deadline
+			f.whenComplete(HashedWheelTimer.get().schedule(wrap(state, task), timeout, unit));
+		}
+		return f;
 	}
 
 	/**
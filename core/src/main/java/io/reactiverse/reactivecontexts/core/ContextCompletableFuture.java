@@ -0,0 +1,353 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link CompletableFuture} which runs its handlers with the context state it carries. From Java 9,
+ * {@link CompletableFuture} creates its dependent stages with {@code newIncompleteFuture()}, so they are
+ * instances of this class carrying the same state, rather than plain futures behind a delegating wrapper.
+ * Async stages which are not given an executor run on its {@code defaultExecutor()}, which installs that state.
+ *
+ * @see CompletableFutureWrapper
+ */
+final class ContextCompletableFuture<T> extends CompletableFuture<T> {
+	/**
+	 * True if dependent stages are created with {@code newIncompleteFuture()}, otherwise this class cannot be used.
+	 */
+	static final boolean SUPPORTED = isSupported();
+	// same as the default executor of CompletableFuture
+	static final Executor ASYNC_POOL = ForkJoinPool.getCommonPoolParallelism() > 1
+			? ForkJoinPool.commonPool() : task -> new Thread(task).start();
+
+	private final ContextState state;
+	// the wrapped future, which is completed along with this one, or null for dependent stages
+	private final CompletableFuture<T> source;
+	// shared by all the dependent stages
+	private final Executor defaultExecutor;
+
+	private ContextCompletableFuture(ContextState state, CompletableFuture<T> source, Executor defaultExecutor) {
+		this.state = state;
+		this.source = source;
+		this.defaultExecutor = defaultExecutor;
+	}
+
+	private static boolean isSupported() {
+		try {
+			CompletableFuture.class.getMethod("newIncompleteFuture");
+			return true;
+		}catch(NoSuchMethodException x) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns a future which completes along with the given future, and runs its handlers with the given state.
+	 * Completing, cancelling or obtruding the returned future does the same to the given future.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> CompletableFuture<T> wrap(ContextState state, CompletableFuture<T> f) {
+		if(f instanceof ContextCompletableFuture && ((ContextCompletableFuture<T>) f).state == state)
+			return f;
+		ContextCompletableFuture<T> ret = new ContextCompletableFuture<>(state, f, defaultExecutor(state));
+		// not wrapped: completing a future needs no context
+		f.whenComplete(ret::completeFromSource);
+		return ret;
+	}
+
+	/**
+	 * Returns a new incomplete future which runs its handlers with the given state.
+	 */
+	static <T> CompletableFuture<T> create(ContextState state) {
+		return new ContextCompletableFuture<>(state, null, defaultExecutor(state));
+	}
+
+	private static Executor defaultExecutor(ContextState state) {
+		return task -> ASYNC_POOL.execute(Context.wrap(state, task));
+	}
+
+	private void completeFromSource(T value, Throwable x) {
+		// the source is already complete
+		if(x != null)
+			super.completeExceptionally(x);
+		else
+			super.complete(value);
+	}
+
+	// overrides CompletableFuture.newIncompleteFuture() from Java 9, so it cannot be annotated with @Override
+	public <U> CompletableFuture<U> newIncompleteFuture() {
+		return new ContextCompletableFuture<>(state, null, defaultExecutor);
+	}
+
+	/**
+	 * Overrides {@code CompletableFuture.defaultExecutor()} from Java 9, which runs every async stage that is not
+	 * given an executor. It installs this state around the task, but handlers run synchronously, or on a given
+	 * executor, still need to be wrapped.
+	 */
+	public Executor defaultExecutor() {
+		return defaultExecutor;
+	}
+
+	// overrides CompletableFuture.completeAsync(Supplier) from Java 9
+	public CompletableFuture<T> completeAsync(Supplier<? extends T> supplier) {
+		return completeAsync(supplier, ASYNC_POOL);
+	}
+
+	// overrides CompletableFuture.completeAsync(Supplier, Executor) from Java 9
+	public CompletableFuture<T> completeAsync(Supplier<? extends T> supplier, Executor executor) {
+		if(supplier == null || executor == null)
+			throw new NullPointerException();
+		executor.execute(Context.wrap(state, () -> CompletableFutures.complete(this, supplier)));
+		return this;
+	}
+
+	// overrides CompletableFuture.orTimeout(long, TimeUnit) from Java 9, with the shared timer
+	public CompletableFuture<T> orTimeout(long timeout, TimeUnit unit) {
+		return onTimeout(() -> completeExceptionally(new TimeoutException()), timeout, unit);
+	}
+
+	// overrides CompletableFuture.completeOnTimeout(Object, long, TimeUnit) from Java 9, with the shared timer
+	public CompletableFuture<T> completeOnTimeout(T value, long timeout, TimeUnit unit) {
+		return onTimeout(() -> complete(value), timeout, unit);
+	}
+
+	private CompletableFuture<T> onTimeout(Runnable task, long timeout, TimeUnit unit) {
+		if(unit == null)
+			throw new NullPointerException();
+		// not wrapped: cancelling the timeout needs no context
+		if(!isDone())
+			super.whenComplete(HashedWheelTimer.get().schedule(Context.wrap(state, task), timeout, unit));
+		return this;
+	}
+
+	/**
+	 * Overrides {@code CompletableFuture.minimalCompletionStage()} from Java 9, whose stages would not carry
+	 * this state. Like the original, completing the future of the returned stage does not complete this one.
+	 */
+	public CompletionStage<T> minimalCompletionStage() {
+		return new CompletionStageWrapper<>(state, super.thenApply(Function.identity()));
+	}
+
+	@Override
+	public boolean complete(T value) {
+		boolean ret = super.complete(value);
+		if(source != null)
+			source.complete(value);
+		return ret;
+	}
+
+	@Override
+	public boolean completeExceptionally(Throwable ex) {
+		boolean ret = super.completeExceptionally(ex);
+		if(source != null)
+			source.completeExceptionally(ex);
+		return ret;
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		boolean ret = super.cancel(mayInterruptIfRunning);
+		if(source != null)
+			source.cancel(mayInterruptIfRunning);
+		return ret;
+	}
+
+	@Override
+	public void obtrudeValue(T value) {
+		super.obtrudeValue(value);
+		if(source != null)
+			source.obtrudeValue(value);
+	}
+
+	@Override
+	public void obtrudeException(Throwable ex) {
+		super.obtrudeException(ex);
+		if(source != null)
+			source.obtrudeException(ex);
+	}
+
+	@Override
+	public CompletableFuture<T> exceptionally(Function<Throwable, ? extends T> fn) {
+		return super.exceptionally(Context.wrap(state, fn));
+	}
+
+	// overrides CompletableFuture.exceptionallyAsync(Function) from Java 12
+	public CompletableFuture<T> exceptionallyAsync(Function<Throwable, ? extends T> fn) {
+		return exceptionallyAsync(fn, defaultExecutor);
+	}
+
+	// overrides CompletableFuture.exceptionallyAsync(Function, Executor) from Java 12, with the Java 8 methods
+	public CompletableFuture<T> exceptionallyAsync(Function<Throwable, ? extends T> fn, Executor executor) {
+		if(fn == null || executor == null)
+			throw new NullPointerException();
+		Function<Throwable, ? extends T> wrapped = Context.wrap(state, fn);
+		return super.handleAsync((value, x) -> x != null ? wrapped.apply(x) : value, executor);
+	}
+
+	// overrides CompletableFuture.exceptionallyCompose(Function) from Java 12, with the Java 8 methods
+	public CompletableFuture<T> exceptionallyCompose(Function<Throwable, ? extends CompletionStage<T>> fn) {
+		if(fn == null)
+			throw new NullPointerException();
+		Function<Throwable, ? extends CompletionStage<T>> wrapped = Context.wrap(state, fn);
+		// this future is already complete when it is returned
+		return super.<CompletionStage<T>>handle((value, x) -> x != null ? wrapped.apply(x) : this)
+				.thenCompose(Function.identity());
+	}
+
+	// overrides CompletableFuture.exceptionallyComposeAsync(Function) from Java 12
+	public CompletableFuture<T> exceptionallyComposeAsync(Function<Throwable, ? extends CompletionStage<T>> fn) {
+		return exceptionallyComposeAsync(fn, defaultExecutor);
+	}
+
+	// overrides CompletableFuture.exceptionallyComposeAsync(Function, Executor) from Java 12, with the Java 8 methods
+	public CompletableFuture<T> exceptionallyComposeAsync(Function<Throwable, ? extends CompletionStage<T>> fn,
+			Executor executor) {
+		if(fn == null || executor == null)
+			throw new NullPointerException();
+		Function<Throwable, ? extends CompletionStage<T>> wrapped = Context.wrap(state, fn);
+		return super.<CompletionStage<T>>handleAsync((value, x) -> x != null ? wrapped.apply(x) : this, executor)
+				.thenCompose(Function.identity());
+	}
+
+	@Override
+	public <U> CompletableFuture<U> handle(BiFunction<? super T, Throwable, ? extends U> fn) {
+		return super.handle(Context.wrap(state, fn));
+	}
+
+	@Override
+	public <U> CompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn,
+			Executor executor) {
+		return super.handleAsync(Context.wrap(state, fn), executor);
+	}
+
+	@Override
+	public <U> CompletableFuture<U> thenApply(Function<? super T, ? extends U> fn) {
+		return super.thenApply(Context.wrap(state, fn));
+	}
+
+	@Override
+	public <U> CompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn, Executor executor) {
+		return super.thenApplyAsync(Context.wrap(state, fn), executor);
+	}
+
+	@Override
+	public CompletableFuture<Void> thenAccept(Consumer<? super T> action) {
+		return super.thenAccept(Context.wrap(state, action));
+	}
+
+	@Override
+	public CompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action, Executor executor) {
+		return super.thenAcceptAsync(Context.wrap(state, action), executor);
+	}
+
+	@Override
+	public CompletableFuture<Void> thenRun(Runnable action) {
+		return super.thenRun(Context.wrap(state, action));
+	}
+
+	@Override
+	public CompletableFuture<Void> thenRunAsync(Runnable action, Executor executor) {
+		return super.thenRunAsync(Context.wrap(state, action), executor);
+	}
+
+	@Override
+	public <U, V> CompletableFuture<V> thenCombine(CompletionStage<? extends U> other,
+			BiFunction<? super T, ? super U, ? extends V> fn) {
+		return super.thenCombine(other, Context.wrap(state, fn));
+	}
+
+	@Override
+	public <U, V> CompletableFuture<V> thenCombineAsync(CompletionStage<? extends U> other,
+			BiFunction<? super T, ? super U, ? extends V> fn, Executor executor) {
+		return super.thenCombineAsync(other, Context.wrap(state, fn), executor);
+	}
+
+	@Override
+	public <U> CompletableFuture<Void> thenAcceptBoth(CompletionStage<? extends U> other,
+			BiConsumer<? super T, ? super U> action) {
+		return super.thenAcceptBoth(other, Context.wrap(state, action));
+	}
+
+	@Override
+	public <U> CompletableFuture<Void> thenAcceptBothAsync(CompletionStage<? extends U> other,
+			BiConsumer<? super T, ? super U> action, Executor executor) {
+		return super.thenAcceptBothAsync(other, Context.wrap(state, action), executor);
+	}
+
+	@Override
+	public CompletableFuture<Void> runAfterBoth(CompletionStage<?> other, Runnable action) {
+		return super.runAfterBoth(other, Context.wrap(state, action));
+	}
+
+	@Override
+	public CompletableFuture<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action,
+			Executor executor) {
+		return super.runAfterBothAsync(other, Context.wrap(state, action), executor);
+	}
+
+	@Override
+	public <U> CompletableFuture<U> applyToEither(CompletionStage<? extends T> other,
+			Function<? super T, U> fn) {
+		return super.applyToEither(other, Context.wrap(state, fn));
+	}
+
+	@Override
+	public <U> CompletableFuture<U> applyToEitherAsync(CompletionStage<? extends T> other,
+			Function<? super T, U> fn, Executor executor) {
+		return super.applyToEitherAsync(other, Context.wrap(state, fn), executor);
+	}
+
+	@Override
+	public CompletableFuture<Void> acceptEither(CompletionStage<? extends T> other,
+			Consumer<? super T> action) {
+		return super.acceptEither(other, Context.wrap(state, action));
+	}
+
+	@Override
+	public CompletableFuture<Void> acceptEitherAsync(CompletionStage<? extends T> other,
+			Consumer<? super T> action, Executor executor) {
+		return super.acceptEitherAsync(other, Context.wrap(state, action), executor);
+	}
+
+	@Override
+	public CompletableFuture<Void> runAfterEither(CompletionStage<?> other, Runnable action) {
+		return super.runAfterEither(other, Context.wrap(state, action));
+	}
+
+	@Override
+	public CompletableFuture<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action,
+			Executor executor) {
+		return super.runAfterEitherAsync(other, Context.wrap(state, action), executor);
+	}
+
+	@Override
+	public <U> CompletableFuture<U> thenCompose(Function<? super T, ? extends CompletionStage<U>> fn) {
+		return super.thenCompose(Context.wrap(state, fn));
+	}
+
+	@Override
+	public <U> CompletableFuture<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn,
+			Executor executor) {
+		return super.thenComposeAsync(Context.wrap(state, fn), executor);
+	}
+
+	@Override
+	public CompletableFuture<T> whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+		return super.whenComplete(Context.wrap(state, action));
+	}
+
+	@Override
+	public CompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action,
+			Executor executor) {
+		return super.whenCompleteAsync(Context.wrap(state, action), executor);
+	}
+}
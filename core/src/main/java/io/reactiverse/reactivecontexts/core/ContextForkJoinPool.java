@@ -0,0 +1,104 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+/**
+ * {@link ForkJoinPool} which captures the current contexts when a task is submitted from outside the pool, and
+ * installs them around that task. Subtasks forked by that task are run by the pool directly, so they only get
+ * the contexts if they are themselves wrapped, or traverse a stream from {@link Context#parallel(java.util.stream.Stream)}.
+ */
+final class ContextForkJoinPool extends ForkJoinPool {
+
+	ContextForkJoinPool(int parallelism) {
+		super(parallelism);
+	}
+
+	@Override
+	public <T> T invoke(ForkJoinTask<T> task) {
+		return super.invoke(wrap(task));
+	}
+
+	@Override
+	public void execute(ForkJoinTask<?> task) {
+		super.execute(wrap(task));
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		super.execute(Context.wrap(task));
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(ForkJoinTask<T> task) {
+		return super.submit(wrap(task));
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(Callable<T> task) {
+		return super.submit(Context.wrap(Context.capture(), task));
+	}
+
+	@Override
+	public <T> ForkJoinTask<T> submit(Runnable task, T result) {
+		return super.submit(Context.wrap(task), result);
+	}
+
+	@Override
+	public ForkJoinTask<?> submit(Runnable task) {
+		return super.submit(Context.wrap(task));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) {
+		List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+		ContextState state = Context.capture();
+		for (Callable<T> task : tasks) {
+			wrapped.add(Context.wrap(state, task));
+		}
+		return super.invokeAll(wrapped);
+	}
+
+	private static <T> ForkJoinTask<T> wrap(ForkJoinTask<T> task) {
+		return new ContextForkJoinTask<>(Context.capture(), task);
+	}
+
+	static final class ContextForkJoinTask<T> extends ForkJoinTask<T> {
+		private static final long serialVersionUID = 1L;
+
+		private final ContextState state;
+		private final ForkJoinTask<T> task;
+		private T result;
+
+		ContextForkJoinTask(ContextState state, ForkJoinTask<T> task) {
+			this.state = state;
+			this.task = task;
+		}
+
+		@Override
+		public T getRawResult() {
+			return result;
+		}
+
+		@Override
+		protected void setRawResult(T value) {
+			result = value;
+		}
+
+		@Override
+		protected boolean exec() {
+			state.enter();
+			try {
+				result = task.invoke();
+			}finally {
+				state.exit();
+			}
+			return true;
+		}
+	}
+}
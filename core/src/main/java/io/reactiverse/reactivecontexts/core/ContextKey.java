@@ -0,0 +1,47 @@
+package io.reactiverse.reactivecontexts.core;
+
+/**
+ * <p>
+ * Typed handle to the context of one {@link ContextProvider} registered in a {@link Context}, obtained with
+ * {@link Context#key(Class)}, which allows reading that context from a captured {@link ContextState} with
+ * {@link ContextState#get(ContextKey)}, or from the current thread with {@link Context#current(ContextKey)},
+ * without installing anything.
+ * </p>
+ * <p>
+ * Looking up a key is not free, so you should keep it around, for example in a static field.
+ * </p>
+ *
+ * @param <T> the type of context state of the {@link ContextProvider}
+ * @see Context#key(Class)
+ */
+public final class ContextKey<T> {
+	private final Context context;
+	private final ContextProvider<T> provider;
+	private final int index;
+
+	ContextKey(Context context, ContextProvider<T> provider, int index) {
+		this.context = context;
+		this.provider = provider;
+		this.index = index;
+	}
+
+	Context getContext() {
+		return context;
+	}
+
+	int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the {@link ContextProvider} whose context this key reads.
+	 */
+	public ContextProvider<T> getProvider() {
+		return provider;
+	}
+
+	@Override
+	public String toString() {
+		return "ContextKey[" + provider.getClass().getName() + "]";
+	}
+}
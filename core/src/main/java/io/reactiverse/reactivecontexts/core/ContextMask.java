@@ -0,0 +1,45 @@
+package io.reactiverse.reactivecontexts.core;
+
+/**
+ * <p>
+ * Subset of the {@link ContextProvider} registered in a {@link Context}, obtained with
+ * {@link Context#mask(ContextKey...)}, which restricts {@link ContextState#install(ContextMask)} and
+ * {@link ContextState#enter(ContextMask)} to installing and restoring only the contexts of those providers,
+ * leaving every other context of the current thread untouched.
+ * </p>
+ * <p>
+ * A mask can also be set for every installation on the current thread with {@link Context#setThreadMask(ContextMask)}.
+ * Like keys, masks are immutable and should be kept around rather than looked up every time.
+ * </p>
+ *
+ * @see Context#mask(ContextKey...)
+ */
+public final class ContextMask {
+	private final Context context;
+	private final int[] indices;
+	private final ContextProvider<?>[] providers;
+
+	ContextMask(Context context, int[] indices, ContextProvider<?>[] providers) {
+		this.context = context;
+		this.indices = indices;
+		this.providers = providers;
+	}
+
+	Context getContext() {
+		return context;
+	}
+
+	/**
+	 * @return the registry slots of the masked providers.
+	 */
+	int[] getIndices() {
+		return indices;
+	}
+
+	/**
+	 * @return the masked providers, in the same order as {@link #getIndices()}.
+	 */
+	ContextProvider<?>[] getProviders() {
+		return providers;
+	}
+}
@@ -0,0 +1,35 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Build-time list of the {@link ContextProvider} and {@link ContextPropagator} available to an application, which
+ * {@link Context#Context()} uses instead of looking them up with the {@link java.util.ServiceLoader}.
+ * </p>
+ * <p>
+ * You do not implement this interface: annotate one class of your application with {@link GenerateContextPluginIndex}
+ * and add the <code>reactive-contexts-processor</code> annotation processor to its build, and it will generate
+ * an implementation named {@link #CLASS_NAME} listing every plugin registered in
+ * <code>META-INF/services</code> on the compilation classpath.
+ * </p>
+ *
+ * @see GenerateContextPluginIndex
+ */
+public interface ContextPluginIndex {
+
+	/**
+	 * The name of the generated implementation of this interface, looked up by {@link Context#Context()}.
+	 */
+	public static final String CLASS_NAME = "io.reactiverse.reactivecontexts.index.GeneratedContextPluginIndex";
+
+	/**
+	 * @return a new instance of every indexed {@link ContextProvider}, in classpath order.
+	 */
+	public List<ContextProvider<?>> getProviders();
+
+	/**
+	 * @return a new instance of every indexed {@link ContextPropagator}, in classpath order.
+	 */
+	public List<ContextPropagator> getPropagators();
+}
@@ -30,4 +30,12 @@ public interface ContextPropagator {
 	 * contexts for.
 	 */
 	public void setup();
+
+	/**
+	 * Called by {@link Context#unregister(ContextPropagator)} when this propagator is unregistered. Implement
+	 * this method to unregister your propagator from the Reactive library/scheduler it was set up for.
+	 * Defaults to doing nothing.
+	 */
+	public default void teardown() {
+	}
 }
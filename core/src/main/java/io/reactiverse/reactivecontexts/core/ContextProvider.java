@@ -45,4 +45,16 @@ public interface ContextProvider<State> {
 	 * @return your current context state.
 	 */
 	public State capture();
+
+	/**
+	 * Checks whether the given state is already your current context state, in which case
+	 * {@link Context#install(ContextState)} will not call {@link #install(Object)} for it, and will not
+	 * call {@link #restore(Object)} afterwards either. Implement this method if you can compare your
+	 * current context state cheaply, for example with an identity check on your thread-local value.
+	 * @param state your context state, as previously captured by {@link #capture()}.
+	 * @return true if the given state is your current context state. Defaults to false.
+	 */
+	public default boolean isInstalled(State state) {
+		return false;
+	}
 }
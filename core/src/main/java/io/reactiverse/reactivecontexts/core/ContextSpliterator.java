@@ -0,0 +1,65 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Installs the captured contexts around each traversal of a stream split, which in a parallel stream is
+ * one call to {@link #forEachRemaining(Consumer)} per fork/join task, instead of once per element.
+ */
+final class ContextSpliterator<T> implements Spliterator<T> {
+	private final ContextState state;
+	private final Spliterator<T> spliterator;
+
+	ContextSpliterator(ContextState state, Spliterator<T> spliterator) {
+		this.state = state;
+		this.spliterator = spliterator;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		state.enter();
+		try {
+			return spliterator.tryAdvance(action);
+		}finally {
+			state.exit();
+		}
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		state.enter();
+		try {
+			spliterator.forEachRemaining(action);
+		}finally {
+			state.exit();
+		}
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		Spliterator<T> split = spliterator.trySplit();
+		return split != null ? new ContextSpliterator<>(state, split) : null;
+	}
+
+	@Override
+	public long estimateSize() {
+		return spliterator.estimateSize();
+	}
+
+	@Override
+	public long getExactSizeIfKnown() {
+		return spliterator.getExactSizeIfKnown();
+	}
+
+	@Override
+	public int characteristics() {
+		return spliterator.characteristics();
+	}
+
+	@Override
+	public Comparator<? super T> getComparator() {
+		return spliterator.getComparator();
+	}
+}
@@ -0,0 +1,93 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread stack of the context states replaced by {@link Context#enter(ContextState)}, so that
+ * {@link Context#exit(ContextState)} can restore them. Frames and their storage are reused, so that
+ * entering and exiting contexts in a steady state does not allocate. This also holds every other
+ * per-thread field of {@link Context}, so that each thread only needs a single thread-local entry,
+ * which matters when running many short-lived virtual threads.
+ *
+ * @see Context#enter(ContextState)
+ */
+final class ContextStack {
+
+	private static final Object[] EMPTY = new Object[0];
+	private static final ThreadLocal<ContextStack> stacks = ThreadLocal.withInitial(ContextStack::new);
+
+	/**
+	 * One entered context state, along with the context states it replaced.
+	 */
+	static final class Frame {
+		ContextState state;
+		// false if the state was already current, in which case nothing needs to be restored
+		boolean installed;
+		Object[] previousStates = EMPTY;
+		ContextProvider<?>[] providers;
+		Context previousThreadContext;
+		ContextState previousCurrent;
+
+		Object[] previousStates(int size) {
+			if(previousStates.length < size)
+				previousStates = new Object[size];
+			return previousStates;
+		}
+	}
+
+	// allocated on first enter, since most threads only capture
+	private Frame[] frames;
+	private int depth;
+	/**
+	 * The {@link Context} set by {@link Context#setThreadInstance(Context)} or installed on this thread, if any.
+	 */
+	Context instance;
+	/**
+	 * The state currently installed on this thread by {@link Context#enter(ContextState)} or
+	 * {@link Context#install(ContextState)}, if any.
+	 */
+	ContextState current;
+	/**
+	 * The last state captured on this thread by {@link Context#captureState()}, which it can return
+	 * again if no context changed. Cleared when the outermost installed state is restored, so that the
+	 * contexts of the last task run by a pooled thread are not retained.
+	 */
+	ContextState captured;
+	/**
+	 * The mask set by {@link Context#setThreadMask(ContextMask)}, if any.
+	 */
+	ContextMask mask;
+
+	static ContextStack get() {
+		return stacks.get();
+	}
+
+	/**
+	 * Returns the frame above the top of the stack, to be filled before calling {@link #push()}.
+	 */
+	Frame next() {
+		if(frames == null)
+			frames = new Frame[8];
+		else if(depth == frames.length)
+			frames = Arrays.copyOf(frames, depth * 2);
+		Frame frame = frames[depth];
+		if(frame == null)
+			frame = frames[depth] = new Frame();
+		return frame;
+	}
+
+	void push() {
+		depth++;
+	}
+
+	/**
+	 * Returns the top of the stack, or null if it is empty.
+	 */
+	Frame peek() {
+		return depth == 0 ? null : frames[depth - 1];
+	}
+
+	void pop() {
+		depth--;
+	}
+}
@@ -9,18 +9,26 @@ package io.reactiverse.reactivecontexts.core;
 public class ContextState {
 	private Context context;
 	private Context previousThreadContext;
+	private ContextProvider<?>[] providers;
 	private Object[] state;
+	private ContextState previousCurrent;
 	
-	ContextState(Context context, Object[] state, Context previousThreadContext) {
+	ContextState(Context context, ContextProvider<?>[] providers, Object[] state, Context previousThreadContext, ContextState previousCurrent) {
 		this.context = context;
+		this.providers = providers;
 		this.state = state;
 		this.previousThreadContext = previousThreadContext;
+		this.previousCurrent = previousCurrent;
 	}
 	
 	Context getContext() {
 		return context;
 	}
 	
+	ContextProvider<?>[] getProviders() {
+		return providers;
+	}
+
 	Object[] getState() {
 		return state;
 	}
@@ -28,12 +36,82 @@ public class ContextState {
 	Context getPreviousThreadContext() {
 		return previousThreadContext;
 	}
+
+	ContextState getPreviousCurrent() {
+		return previousCurrent;
+	}
 	
+	/**
+	 * Reads the context of a single {@link ContextProvider} from this state, without installing it.
+	 * @param key the key of the {@link ContextProvider} to read, from {@link Context#key(Class)}
+	 * @param <T> the type of context state of the {@link ContextProvider}
+	 * @return the context of that {@link ContextProvider} in this state, or null if it was not registered
+	 * when this state was captured, or if this state was returned by {@link Context#install(ContextState)} and
+	 * that context was already installed.
+	 * @throws IllegalArgumentException if the key was not obtained from the {@link Context} which captured this state.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(ContextKey<T> key) {
+		if(context != key.getContext())
+			throw new IllegalArgumentException("Key was obtained from a different context");
+		int index = key.getIndex();
+		if(index >= state.length || providers[index] != key.getProvider())
+			return null;
+		Object value = state[index];
+		return value != Context.NOT_INSTALLED ? (T) value : null;
+	}
+
 	public ContextState install() {
 		return context.install(this);
 	}
 	
+	/**
+	 * Installs the contexts of the given providers only, leaving every other context untouched.
+	 * @param keys the keys of the providers to install
+	 * @return the previous contexts of those providers, to restore with {@link #restore()}
+	 * @see Context#install(ContextState, ContextMask)
+	 */
+	public ContextState install(ContextKey<?>... keys) {
+		return context.install(this, context.mask(keys));
+	}
+
+	/**
+	 * Installs the contexts of the providers of the given mask only, leaving every other context untouched.
+	 * @param mask the providers to install
+	 * @return the previous contexts of those providers, to restore with {@link #restore()}
+	 * @see Context#install(ContextState, ContextMask)
+	 */
+	public ContextState install(ContextMask mask) {
+		return context.install(this, mask);
+	}
+
 	public void restore() {
 		context.restore(this);
 	}
+
+	/**
+	 * Installs this context state without allocating, until the matching call to {@link #exit()}.
+	 * @see Context#enter(ContextState)
+	 */
+	public void enter() {
+		context.enter(this);
+	}
+
+	/**
+	 * Installs the contexts of the providers of the given mask only, without allocating, until the matching
+	 * call to {@link #exit()}.
+	 * @param mask the providers to install
+	 * @see Context#enter(ContextState, ContextMask)
+	 */
+	public void enter(ContextMask mask) {
+		context.enter(this, mask);
+	}
+
+	/**
+	 * Restores the context state which was current before the matching call to {@link #enter()}.
+	 * @see Context#exit(ContextState)
+	 */
+	public void exit() {
+		context.exit(this);
+	}
 }
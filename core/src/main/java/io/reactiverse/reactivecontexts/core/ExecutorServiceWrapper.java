@@ -0,0 +1,96 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class ExecutorServiceWrapper implements ExecutorService {
+	private final ExecutorService executor;
+
+	ExecutorServiceWrapper(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	@Override
+	public void execute(Runnable command) {
+		executor.execute(Context.wrap(command));
+	}
+
+	@Override
+	public Future<?> submit(Runnable task) {
+		return executor.submit(Context.wrap(task));
+	}
+
+	@Override
+	public <T> Future<T> submit(Runnable task, T result) {
+		return executor.submit(Context.wrap(task), result);
+	}
+
+	@Override
+	public <T> Future<T> submit(Callable<T> task) {
+		return executor.submit(Context.wrap(Context.capture(), task));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+		return executor.invokeAll(wrap(tasks));
+	}
+
+	@Override
+	public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException {
+		return executor.invokeAll(wrap(tasks), timeout, unit);
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+		return executor.invokeAny(wrap(tasks));
+	}
+
+	@Override
+	public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		return executor.invokeAny(wrap(tasks), timeout, unit);
+	}
+
+	private <T> List<Callable<T>> wrap(Collection<? extends Callable<T>> tasks) {
+		List<Callable<T>> ret = new ArrayList<>(tasks.size());
+		// the contexts cannot change between tasks of the same call
+		ContextState state = Context.capture();
+		for (Callable<T> task : tasks) {
+			ret.add(Context.wrap(state, task));
+		}
+		return ret;
+	}
+
+	@Override
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		return executor.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return executor.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+}
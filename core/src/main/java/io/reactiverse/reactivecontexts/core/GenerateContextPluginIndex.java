@@ -0,0 +1,19 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requests the <code>reactive-contexts-processor</code> annotation processor to generate the
+ * {@link ContextPluginIndex} of the application, from the <code>META-INF/services</code> registrations
+ * visible on the compilation classpath. Put it on a single class of the module which has every
+ * {@link ContextProvider} and {@link ContextPropagator} of the application in its dependencies.
+ *
+ * @see ContextPluginIndex
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.TYPE, ElementType.PACKAGE})
+public @interface GenerateContextPluginIndex {
+}
@@ -0,0 +1,229 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+/**
+ * Shared timer for the timeouts of {@link Context#orTimeout(java.util.concurrent.CompletableFuture, long, TimeUnit)},
+ * which runs its tasks on a single daemon thread, at most one tick after their deadline. Timeouts are hashed into a
+ * wheel of buckets by deadline, so that scheduling and cancelling them is O(1), unlike the task queue of a
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor}, which is a heap.
+ */
+final class HashedWheelTimer {
+
+	static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	// a power of two, so that ticks are hashed with a mask
+	private static final int WHEEL_SIZE = 512;
+
+	private static final class Holder {
+		static final HashedWheelTimer INSTANCE = new HashedWheelTimer();
+	}
+
+	/**
+	 * A scheduled task, which can be passed to {@link java.util.concurrent.CompletableFuture#whenComplete(BiConsumer)}
+	 * to cancel it when the future completes.
+	 */
+	final class Timeout implements BiConsumer<Object, Throwable> {
+		private static final int PENDING = 0;
+		private static final int CANCELLED = 1;
+		private static final int EXPIRED = 2;
+
+		private final Runnable task;
+		private final long deadline;
+		// not private, for the field updater
+		volatile int state;
+		// only accessed by the timer thread, except the bucket which tells cancel() whether to remove it
+		private long remainingRounds;
+		private volatile Bucket bucket;
+		private Timeout previous;
+		private Timeout next;
+
+		private Timeout(Runnable task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Cancels this timeout if it has not run yet, and removes it from the wheel on the next tick.
+		 * @return true if it was cancelled
+		 */
+		boolean cancel() {
+			if(!STATE.compareAndSet(this, PENDING, CANCELLED))
+				return false;
+			// timeouts which are not in a bucket yet are skipped when transferred, and if we miss the
+			// transfer, the bucket removes them when the timer reaches it
+			if(bucket != null)
+				cancelled.add(this);
+			return true;
+		}
+
+		boolean isCancelled() {
+			return state == CANCELLED;
+		}
+
+		@Override
+		public void accept(Object value, Throwable x) {
+			cancel();
+		}
+
+		private void expire() {
+			if(!STATE.compareAndSet(this, PENDING, EXPIRED))
+				return;
+			try {
+				task.run();
+			}catch(Throwable x) {
+				// do not kill the timer thread for every other timeout
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, x);
+			}
+		}
+	}
+
+	private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+	/**
+	 * Doubly-linked list of the timeouts hashed to the same tick.
+	 */
+	private static final class Bucket {
+		private Timeout head;
+		private Timeout tail;
+
+		void add(Timeout timeout) {
+			timeout.bucket = this;
+			if(head == null) {
+				head = tail = timeout;
+			}else {
+				tail.next = timeout;
+				timeout.previous = tail;
+				tail = timeout;
+			}
+		}
+
+		void remove(Timeout timeout) {
+			if(timeout.previous != null)
+				timeout.previous.next = timeout.next;
+			else
+				head = timeout.next;
+			if(timeout.next != null)
+				timeout.next.previous = timeout.previous;
+			else
+				tail = timeout.previous;
+			timeout.previous = timeout.next = null;
+			timeout.bucket = null;
+		}
+
+		void expire() {
+			Timeout timeout = head;
+			while(timeout != null) {
+				Timeout next = timeout.next;
+				if(timeout.remainingRounds <= 0) {
+					remove(timeout);
+					timeout.expire();
+				}else if(timeout.isCancelled()) {
+					remove(timeout);
+				}else {
+					timeout.remainingRounds--;
+				}
+				timeout = next;
+			}
+		}
+	}
+
+	private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+	// striped at random, so that threads scheduling timeouts do not contend on the same queue
+	private final Queue<Timeout>[] added;
+	private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+	private final long startTime;
+	// only accessed by the timer thread
+	private long tick;
+
+	private HashedWheelTimer() {
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			wheel[i] = new Bucket();
+		}
+		int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+		added = newQueues(stripes);
+		startTime = System.nanoTime();
+		Thread thread = new Thread(this::run, "reactive-contexts-timer");
+		thread.setDaemon(true);
+		// do not pin the class loader of whichever application happened to schedule the first timeout
+		thread.setContextClassLoader(null);
+		thread.start();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Queue<Timeout>[] newQueues(int size) {
+		Queue<Timeout>[] ret = new Queue[size];
+		for (int i = 0; i < size; i++) {
+			ret[i] = new ConcurrentLinkedQueue<>();
+		}
+		return ret;
+	}
+
+	static HashedWheelTimer get() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * Schedules the given task to run on the timer thread after the given delay.
+	 * @return the timeout, to cancel the task
+	 */
+	Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+		long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+		// overflow
+		if(delay > 0 && deadline < 0)
+			deadline = Long.MAX_VALUE;
+		Timeout timeout = new Timeout(task, deadline);
+		added[ThreadLocalRandom.current().nextInt() & (added.length - 1)].add(timeout);
+		return timeout;
+	}
+
+	private void run() {
+		for(;;) {
+			waitForNextTick();
+			removeCancelled();
+			transferAdded();
+			wheel[(int) (tick & (WHEEL_SIZE - 1))].expire();
+			tick++;
+		}
+	}
+
+	private void waitForNextTick() {
+		long deadline = TICK_NANOS * (tick + 1);
+		for(;;) {
+			long sleepNanos = deadline - (System.nanoTime() - startTime);
+			if(sleepNanos <= 0)
+				return;
+			LockSupport.parkNanos(this, sleepNanos);
+		}
+	}
+
+	private void removeCancelled() {
+		Timeout timeout;
+		while((timeout = cancelled.poll()) != null) {
+			// not yet transferred if null, and then skipped by transferAdded()
+			if(timeout.bucket != null)
+				timeout.bucket.remove(timeout);
+		}
+	}
+
+	private void transferAdded() {
+		for (Queue<Timeout> queue : added) {
+			Timeout timeout;
+			while((timeout = queue.poll()) != null) {
+				if(timeout.isCancelled())
+					continue;
+				// the bucket of the tick whose end is past the deadline
+				long ticks = timeout.deadline / TICK_NANOS;
+				timeout.remainingRounds = (ticks - tick) / WHEEL_SIZE;
+				// the current bucket if the deadline has already passed
+				wheel[(int) (Math.max(ticks, tick) & (WHEEL_SIZE - 1))].add(timeout);
+			}
+		}
+	}
+}
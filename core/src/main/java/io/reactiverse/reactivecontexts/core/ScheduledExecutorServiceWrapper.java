@@ -0,0 +1,36 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+final class ScheduledExecutorServiceWrapper extends ExecutorServiceWrapper implements ScheduledExecutorService {
+	private final ScheduledExecutorService executor;
+
+	ScheduledExecutorServiceWrapper(ScheduledExecutorService executor) {
+		super(executor);
+		this.executor = executor;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+		return executor.schedule(Context.wrap(command), delay, unit);
+	}
+
+	@Override
+	public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+		return executor.schedule(Context.wrap(Context.capture(), callable), delay, unit);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+		// captured once, installed around every run
+		return executor.scheduleAtFixedRate(Context.wrap(command), initialDelay, period, unit);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+		return executor.scheduleWithFixedDelay(Context.wrap(command), initialDelay, delay, unit);
+	}
+}
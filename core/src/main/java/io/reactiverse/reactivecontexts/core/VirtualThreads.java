@@ -0,0 +1,16 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual thread support, which is replaced by the Java 21 version of this class in the multi-release jar.
+ */
+final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		throw new UnsupportedOperationException("Virtual threads require Java 21");
+	}
+}
@@ -0,0 +1,17 @@
+package io.reactiverse.reactivecontexts.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual thread support, for Java 21 and later.
+ */
+final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		return new ExecutorServiceWrapper(Executors.newVirtualThreadPerTaskExecutor());
+	}
+}
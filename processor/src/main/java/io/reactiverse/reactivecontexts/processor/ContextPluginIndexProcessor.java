@@ -0,0 +1,245 @@
+package io.reactiverse.reactivecontexts.processor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import io.reactiverse.reactivecontexts.core.ContextPluginIndex;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import io.reactiverse.reactivecontexts.core.ContextProvider;
+import io.reactiverse.reactivecontexts.core.GenerateContextPluginIndex;
+
+/**
+ * Annotation processor which generates the {@link ContextPluginIndex} when it finds a type or package annotated with
+ * {@link GenerateContextPluginIndex}. The index lists every {@link ContextProvider} and {@link ContextPropagator}
+ * registered in <code>META-INF/services</code> in the compilation output and classpath, in classpath order, just like
+ * the {@link java.util.ServiceLoader} would have found them at runtime. If the annotation processor path differs
+ * from the classpath, the classpath must be passed with the {@value #CLASSPATH_OPTION} processor option.
+ */
+public class ContextPluginIndexProcessor extends AbstractProcessor {
+
+	/**
+	 * Processor option with the compilation classpath, which must be passed when the annotation processor path
+	 * differs from it, since the compiler does not let processors list the resources of the classpath.
+	 */
+	public static final String CLASSPATH_OPTION = "reactivecontexts.classpath";
+
+	private boolean generated;
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return Collections.singleton(GenerateContextPluginIndex.class.getName());
+	}
+
+	@Override
+	public Set<String> getSupportedOptions() {
+		return Collections.singleton(CLASSPATH_OPTION);
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getElementsAnnotatedWith(GenerateContextPluginIndex.class)) {
+			if(generated) {
+				processingEnv.getMessager().printMessage(Kind.ERROR,
+						"The context plugin index is already generated: only one element can be annotated with @"
+								+GenerateContextPluginIndex.class.getSimpleName(), element);
+				continue;
+			}
+			generated = true;
+			try {
+				generate(element);
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Kind.ERROR, "Failed to generate the context plugin index: "+e, element);
+			}
+		}
+		return true;
+	}
+
+	private void generate(Element originatingElement) throws IOException {
+		String classpath = processingEnv.getOptions().get(CLASSPATH_OPTION);
+		if(classpath != null) {
+			try(URLClassLoader loader = new URLClassLoader(toURLs(classpath), null)){
+				generate(originatingElement, loader);
+			}
+		}else if(isLoadedFromClasspath()) {
+			// without an explicit processor path, processors are loaded from the classpath
+			generate(originatingElement, getClass().getClassLoader());
+		}else {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"The annotation processor path differs from the classpath, so the context plugins of the classpath"
+					+ " cannot be listed: pass the classpath with -A"+CLASSPATH_OPTION+"=<classpath>", originatingElement);
+		}
+	}
+
+	private void generate(Element originatingElement, ClassLoader classpath) throws IOException {
+		List<String> providers = findPlugins(ContextProvider.class, originatingElement, classpath);
+		List<String> propagators = findPlugins(ContextPropagator.class, originatingElement, classpath);
+		String className = ContextPluginIndex.CLASS_NAME;
+		int lastDot = className.lastIndexOf('.');
+		JavaFileObject file = processingEnv.getFiler().createSourceFile(className, originatingElement);
+		try(PrintWriter writer = new PrintWriter(file.openWriter())){
+			writer.println("package "+className.substring(0, lastDot)+";");
+			writer.println();
+			writer.println("import java.util.Arrays;");
+			writer.println("import java.util.List;");
+			writer.println();
+			writer.println("import "+ContextPluginIndex.class.getName()+";");
+			writer.println("import "+ContextPropagator.class.getName()+";");
+			writer.println("import "+ContextProvider.class.getName()+";");
+			writer.println();
+			writer.println("/**");
+			writer.println(" * Generated by "+getClass().getName()+", do not edit.");
+			writer.println(" */");
+			writer.println("public class "+className.substring(lastDot + 1)+" implements ContextPluginIndex {");
+			writer.println();
+			writeList(writer, "ContextProvider<?>", "getProviders", providers);
+			writer.println();
+			writeList(writer, "ContextPropagator", "getPropagators", propagators);
+			writer.println("}");
+		}
+	}
+
+	private void writeList(PrintWriter writer, String type, String method, List<String> classes) {
+		writer.println("\t@Override");
+		writer.println("\tpublic List<"+type+"> "+method+"() {");
+		writer.print("\t\treturn Arrays.<"+type+">asList(");
+		for (int i = 0; i < classes.size(); i++) {
+			if(i > 0)
+				writer.print(",");
+			writer.println();
+			writer.print("\t\t\t\tnew "+classes.get(i)+"()");
+		}
+		writer.println(");");
+		writer.println("\t}");
+	}
+
+	private List<String> findPlugins(Class<?> service, Element originatingElement, ClassLoader classpath) throws IOException {
+		String resourceName = "META-INF/services/"+service.getName();
+		Set<String> names = new LinkedHashSet<>();
+		// the services of the module being compiled come first, and are not on the classpath yet
+		try {
+			FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", resourceName);
+			try(InputStream is = resource.openInputStream()){
+				readServiceNames(is, names);
+			}
+		}catch(IOException | IllegalArgumentException x) {
+			// no such resource in this module
+		}
+		// the filer cannot list them, and does not even find META-INF resources in jars
+		Enumeration<URL> resources = classpath.getResources(resourceName);
+		while(resources.hasMoreElements()) {
+			try(InputStream is = resources.nextElement().openStream()){
+				readServiceNames(is, names);
+			}
+		}
+		List<String> ret = new ArrayList<>(names.size());
+		for (String name : names) {
+			// nested classes are listed by binary name
+			TypeElement type = processingEnv.getElementUtils().getTypeElement(name.replace('$', '.'));
+			if(type == null) {
+				processingEnv.getMessager().printMessage(Kind.ERROR,
+						"Cannot find "+service.getSimpleName()+" "+name+" listed in "+resourceName, originatingElement);
+			}else if(!type.getModifiers().contains(Modifier.PUBLIC)) {
+				processingEnv.getMessager().printMessage(Kind.ERROR,
+						service.getSimpleName()+" "+name+" listed in "+resourceName+" must be public", originatingElement);
+			}else {
+				ret.add(type.getQualifiedName().toString());
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Checks that this processor was loaded from the compilation classpath, rather than from a separate
+	 * annotation processor path, by comparing its class file on both.
+	 */
+	private boolean isLoadedFromClasspath() {
+		String className = getClass().getName();
+		int lastDot = className.lastIndexOf('.');
+		String fileName = className.substring(lastDot + 1)+".class";
+		URL loaded = getClass().getResource(fileName);
+		if(loaded == null)
+			return false;
+		try {
+			FileObject onClasspath = processingEnv.getFiler().getResource(StandardLocation.CLASS_PATH, className.substring(0, lastDot), fileName);
+			Path path = toPath(onClasspath.toUri());
+			return path != null && path.equals(toPath(loaded.toURI()));
+		}catch(IOException | IllegalArgumentException | URISyntaxException x) {
+			// not on the classpath
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the file of a class, or of the archive containing it, since the compiler and class loaders
+	 * do not spell archive entry URIs the same way.
+	 */
+	private static Path toPath(URI uri) {
+		String path = uri.toString();
+		if(path.startsWith("jar:")) {
+			int separator = path.indexOf("!/");
+			path = path.substring(4, separator != -1 ? separator : path.length());
+		}
+		try {
+			return Paths.get(new URI(path)).toAbsolutePath().normalize();
+		}catch(URISyntaxException | IllegalArgumentException | FileSystemNotFoundException x) {
+			return null;
+		}
+	}
+
+	private static URL[] toURLs(String classpath) throws MalformedURLException {
+		List<URL> ret = new ArrayList<>();
+		for (String entry : classpath.split(File.pathSeparator)) {
+			if(!entry.isEmpty())
+				ret.add(new File(entry).toURI().toURL());
+		}
+		return ret.toArray(new URL[ret.size()]);
+	}
+
+	private static void readServiceNames(InputStream is, Set<String> names) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+		String line;
+		while((line = reader.readLine()) != null) {
+			int comment = line.indexOf('#');
+			if(comment != -1)
+				line = line.substring(0, comment);
+			line = line.trim();
+			if(!line.isEmpty())
+				names.add(line);
+		}
+	}
+}
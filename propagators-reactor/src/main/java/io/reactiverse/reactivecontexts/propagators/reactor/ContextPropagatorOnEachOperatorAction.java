@@ -0,0 +1,250 @@
+package io.reactiverse.reactivecontexts.propagators.reactor;
+
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Fuseable.ConditionalSubscriber;
+import reactor.core.Fuseable.QueueSubscription;
+import reactor.core.Scannable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.publisher.ParallelFlux;
+
+/**
+ * <p>
+ * Captures the contexts when each operator is assembled, and installs them when it is subscribed, and around
+ * every signal it sends to its subscriber.
+ * </p>
+ * <p>
+ * Synchronous operators always send their signals on the thread their upstream sent its own, so when their upstream
+ * already propagates the same context state, they are left as they are: only sources and operators which can change
+ * threads, such as <code>publishOn</code>, install contexts.
+ * </p>
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class ContextPropagatorOnEachOperatorAction implements Function<Publisher<Object>, Publisher<Object>> {
+
+	@Override
+	public Publisher<Object> apply(Publisher<Object> publisher) {
+		ContextState state = Context.capture();
+		if(isPropagatedUpstream(publisher, state))
+			return publisher;
+		if(publisher instanceof Mono)
+			return new ContextPropagatorMono((Mono) publisher, state);
+		// those types must be preserved, so only their signals are propagated
+		if(publisher instanceof ConnectableFlux || publisher instanceof ParallelFlux)
+			return (Publisher) Operators.lift((scannable, subscriber) -> new ContextCapturerSubscriber((CoreSubscriber) subscriber, state))
+					.apply(publisher);
+		if(publisher instanceof Flux)
+			return new ContextPropagatorFlux((Flux) publisher, state);
+		return publisher;
+	}
+
+	/**
+	 * Checks whether the given operator sends its signals on the same thread as an upstream operator which propagates
+	 * the given state.
+	 */
+	private static boolean isPropagatedUpstream(Publisher<?> publisher, ContextState state) {
+		Scannable scannable = Scannable.from(publisher);
+		while(scannable.scan(Scannable.Attr.RUN_STYLE) == Scannable.Attr.RunStyle.SYNC) {
+			Scannable parent = scannable.scan(Scannable.Attr.PARENT);
+			if(parent instanceof ContextPropagatorMono)
+				return ((ContextPropagatorMono<?>) parent).state == state;
+			if(parent instanceof ContextPropagatorFlux)
+				return ((ContextPropagatorFlux<?>) parent).state == state;
+			if(parent == null)
+				return false;
+			// synchronous operators between us and the propagator were left as they are
+			scannable = parent;
+		}
+		return false;
+	}
+
+	final static class ContextPropagatorMono<T> extends Mono<T> implements Scannable {
+
+		private final Mono<T> source;
+		private final ContextState state;
+
+		ContextPropagatorMono(Mono<T> source, ContextState state) {
+			this.source = source;
+			this.state = state;
+		}
+
+		@Override
+		public Object scanUnsafe(Attr key) {
+			if(key == Attr.PARENT)
+				return source;
+			if(key == Attr.RUN_STYLE)
+				return Attr.RunStyle.SYNC;
+			return null;
+		}
+
+		@Override
+		public void subscribe(CoreSubscriber<? super T> actual) {
+			state.enter();
+			try {
+				source.subscribe(new ContextCapturerSubscriber<>(actual, state));
+			}finally {
+				state.exit();
+			}
+		}
+	}
+
+	final static class ContextPropagatorFlux<T> extends Flux<T> implements Scannable {
+
+		private final Flux<T> source;
+		private final ContextState state;
+
+		ContextPropagatorFlux(Flux<T> source, ContextState state) {
+			this.source = source;
+			this.state = state;
+		}
+
+		@Override
+		public Object scanUnsafe(Attr key) {
+			if(key == Attr.PARENT)
+				return source;
+			if(key == Attr.RUN_STYLE)
+				return Attr.RunStyle.SYNC;
+			return null;
+		}
+
+		@Override
+		public void subscribe(CoreSubscriber<? super T> actual) {
+			state.enter();
+			try {
+				source.subscribe(new ContextCapturerSubscriber<>(actual, state));
+			}finally {
+				state.exit();
+			}
+		}
+	}
+
+	/**
+	 * Installs the contexts around every signal, and around every {@link #poll()} when the subscriber fuses with
+	 * its upstream, so that fused upstream operators and sources, which run their functions when polled, still run
+	 * them with the contexts.
+	 */
+	final static class ContextCapturerSubscriber<T> implements ConditionalSubscriber<T>, QueueSubscription<T> {
+
+		private final CoreSubscriber<? super T> actual;
+		private final ContextState state;
+		private Subscription upstream;
+		private QueueSubscription<T> queue;
+
+		ContextCapturerSubscriber(CoreSubscriber<? super T> actual, ContextState state) {
+			this.actual = actual;
+			this.state = state;
+		}
+
+		@Override
+		public reactor.util.context.Context currentContext() {
+			return actual.currentContext();
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			upstream = s;
+			if(s instanceof QueueSubscription)
+				queue = (QueueSubscription<T>) s;
+			state.enter();
+			try {
+				actual.onSubscribe(this);
+			}finally {
+				state.exit();
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			state.enter();
+			try {
+				actual.onNext(t);
+			}finally {
+				state.exit();
+			}
+		}
+
+		@Override
+		public boolean tryOnNext(T t) {
+			if(!(actual instanceof ConditionalSubscriber)) {
+				onNext(t);
+				return true;
+			}
+			state.enter();
+			try {
+				return ((ConditionalSubscriber<? super T>) actual).tryOnNext(t);
+			}finally {
+				state.exit();
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			state.enter();
+			try {
+				actual.onError(t);
+			}finally {
+				state.exit();
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			state.enter();
+			try {
+				actual.onComplete();
+			}finally {
+				state.exit();
+			}
+		}
+
+		@Override
+		public void request(long n) {
+			upstream.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			upstream.cancel();
+		}
+
+		@Override
+		public int requestFusion(int mode) {
+			return queue != null ? queue.requestFusion(mode) : Fuseable.NONE;
+		}
+
+		@Override
+		public T poll() {
+			state.enter();
+			try {
+				return queue.poll();
+			}finally {
+				state.exit();
+			}
+		}
+
+		@Override
+		public int size() {
+			return queue.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return queue.isEmpty();
+		}
+
+		@Override
+		public void clear() {
+			queue.clear();
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package io.reactiverse.reactivecontexts.propagators.reactor;
+
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.ParallelFlux;
+
+/**
+ * Reactive Context propagator for Project Reactor. Supports propagating context to all {@link Mono},
+ * {@link Flux} and {@link ParallelFlux} types, by capturing contexts when each operator is assembled, using
+ * {@link Hooks#onEachOperator(String, java.util.function.Function)}.
+ */
+public class ReactorContextPropagator implements ContextPropagator {
+
+	private static final String HOOK_KEY = ReactorContextPropagator.class.getName();
+
+	public void setup() {
+		Hooks.onEachOperator(HOOK_KEY, new ContextPropagatorOnEachOperatorAction());
+	}
+
+	public void teardown() {
+		Hooks.resetOnEachOperator(HOOK_KEY);
+	}
+}
@@ -9,9 +9,26 @@ import rx.functions.Func1;
 
 public class ContextPropagatorOnCompleteCreateAction implements Func1<OnSubscribe, OnSubscribe> {
 
+	private final boolean captureSubscribers;
+
+	/**
+	 * Creates an action which installs the contexts around subscribe and around every signal.
+	 */
+	public ContextPropagatorOnCompleteCreateAction() {
+		this(true);
+	}
+
+	/**
+	 * @param captureSubscribers false to only install the contexts around subscribe, when the signals get them
+	 * from the {@link ContextPropagatorOnScheduleAction scheduled actions} instead.
+	 */
+	public ContextPropagatorOnCompleteCreateAction(boolean captureSubscribers) {
+		this.captureSubscribers = captureSubscribers;
+	}
+
 	@Override
 	public OnSubscribe call(OnSubscribe t) {
-		return new ContextCapturerCompletable(t);
+		return new ContextCapturerCompletable(t, captureSubscribers);
 	}
 
 	final static class ContextCapturerCompletable implements OnSubscribe {
@@ -20,18 +37,24 @@ public class ContextPropagatorOnCompleteCreateAction implements Func1<OnSubscrib
 
 		private ContextState states;
 
-	    public ContextCapturerCompletable(OnSubscribe source) {
+		private final boolean captureSubscribers;
+
+	    public ContextCapturerCompletable(OnSubscribe source, boolean captureSubscribers) {
 	        this.source = source;
+	        this.captureSubscribers = captureSubscribers;
 	        states = Context.capture();
 	    }
 
 	    @Override
 	    public void call(CompletableSubscriber t) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
-	    		source.call(new OnAssemblyCompletableSubscriber(t, states));
+	    		if(captureSubscribers)
+	    			source.call(new OnAssemblyCompletableSubscriber(t, states));
+	    		else
+	    			source.call(t);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 	    }
 
@@ -48,31 +71,31 @@ public class ContextPropagatorOnCompleteCreateAction implements Func1<OnSubscrib
 
 	        @Override
 	        public void onError(Throwable e) {
-	        	ContextState previousStates = states.install();
+	        	states.enter();
 				try {
 					actual.onError(e);
 				}finally {
-					previousStates.restore();
+					states.exit();
 				}
 	        }
 
 	        @Override
 	        public void onCompleted() {
-	        	ContextState previousStates = states.install();
+	        	states.enter();
 				try {
 					actual.onCompleted();
 				}finally {
-					previousStates.restore();
+					states.exit();
 				}
 	        }
 
 			@Override
 			public void onSubscribe(Subscription d) {
-				ContextState previousStates = states.install();
+				states.enter();
 				try {
 					actual.onSubscribe(d);
 				}finally {
-					previousStates.restore();
+					states.exit();
 				}
 			}
 	    }
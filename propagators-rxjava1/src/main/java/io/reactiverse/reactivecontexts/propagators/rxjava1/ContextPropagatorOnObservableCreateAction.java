@@ -9,9 +9,26 @@ import rx.functions.Func1;
 
 public class ContextPropagatorOnObservableCreateAction implements Func1<OnSubscribe, OnSubscribe> {
 
+	private final boolean captureSubscribers;
+
+	/**
+	 * Creates an action which installs the contexts around subscribe and around every signal.
+	 */
+	public ContextPropagatorOnObservableCreateAction() {
+		this(true);
+	}
+
+	/**
+	 * @param captureSubscribers false to only install the contexts around subscribe, when the signals get them
+	 * from the {@link ContextPropagatorOnScheduleAction scheduled actions} instead.
+	 */
+	public ContextPropagatorOnObservableCreateAction(boolean captureSubscribers) {
+		this.captureSubscribers = captureSubscribers;
+	}
+
 	@Override
 	public OnSubscribe call(OnSubscribe t) {
-		return new ContextCapturerObservable(t);
+		return new ContextCapturerObservable(t, captureSubscribers);
 	}
 
 	final static class ContextCapturerObservable<T> implements Observable.OnSubscribe<T> {
@@ -20,18 +37,24 @@ public class ContextPropagatorOnObservableCreateAction implements Func1<OnSubscr
 
 		private ContextState states;
 
-	    public ContextCapturerObservable(Observable.OnSubscribe<T> source) {
+		private final boolean captureSubscribers;
+
+	    public ContextCapturerObservable(Observable.OnSubscribe<T> source, boolean captureSubscribers) {
 	        this.source = source;
+	        this.captureSubscribers = captureSubscribers;
 	        states = Context.capture();
 	    }
 
 		@Override
 		public void call(Subscriber<? super T> t) {
-			ContextState previousStates = states.install();
+			states.enter();
 			try {
-	    		source.call(new OnAssemblyObservableSubscriber<T>(t, states));
+	    		if(captureSubscribers)
+	    			source.call(new OnAssemblyObservableSubscriber<T>(t, states));
+	    		else
+	    			source.call(t);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 
 		}
@@ -50,31 +73,31 @@ public class ContextPropagatorOnObservableCreateAction implements Func1<OnSubscr
 
 	        @Override
 	        public void onError(Throwable e) {
-	        	ContextState previousStates = states.install();
+	        	states.enter();
 				try {
 					actual.onError(e);
 				}finally {
-					previousStates.restore();
+					states.exit();
 				}
 	        }
 
 	        @Override
 	        public void onNext(T t) {
-	        	ContextState previousStates = states.install();
+	        	states.enter();
 				try {
 					actual.onNext(t);
 				}finally {
-					previousStates.restore();
+					states.exit();
 				}
 	        }
 
 	        @Override
 	        public void onCompleted() {
-	        	ContextState previousStates = states.install();
+	        	states.enter();
 				try {
 					actual.onCompleted();
 				}finally {
-					previousStates.restore();
+					states.exit();
 				}
 	        }
         }
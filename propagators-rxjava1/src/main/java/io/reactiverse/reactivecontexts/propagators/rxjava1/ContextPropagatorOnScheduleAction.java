@@ -0,0 +1,41 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava1;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import rx.functions.Action0;
+import rx.functions.Func1;
+
+public class ContextPropagatorOnScheduleAction implements Func1<Action0, Action0> {
+
+	@Override
+	public Action0 call(Action0 t) {
+		return new ContextCapturerAction(t);
+	}
+
+	/**
+	 * Installs the contexts captured when the action was scheduled once around the whole action, such as an
+	 * <code>observeOn</code> drain loop, instead of around every signal.
+	 */
+	final static class ContextCapturerAction implements Action0 {
+
+		final Action0 source;
+
+		private ContextState states;
+
+		public ContextCapturerAction(Action0 source) {
+			this.source = source;
+			states = Context.capture();
+		}
+
+		@Override
+		public void call() {
+			states.enter();
+			try {
+				source.call();
+			}finally {
+				states.exit();
+			}
+		}
+	}
+
+}
@@ -9,9 +9,26 @@ import rx.functions.Func1;
 
 public class ContextPropagatorOnSingleCreateAction implements Func1<OnSubscribe, OnSubscribe> {
 
+	private final boolean captureSubscribers;
+
+	/**
+	 * Creates an action which installs the contexts around subscribe and around every signal.
+	 */
+	public ContextPropagatorOnSingleCreateAction() {
+		this(true);
+	}
+
+	/**
+	 * @param captureSubscribers false to only install the contexts around subscribe, when the signals get them
+	 * from the {@link ContextPropagatorOnScheduleAction scheduled actions} instead.
+	 */
+	public ContextPropagatorOnSingleCreateAction(boolean captureSubscribers) {
+		this.captureSubscribers = captureSubscribers;
+	}
+
 	@Override
 	public OnSubscribe call(OnSubscribe t) {
-		return new ContextCapturerSingle(t);
+		return new ContextCapturerSingle(t, captureSubscribers);
 	}
 	
 	final static class ContextCapturerSingle<T> implements Single.OnSubscribe<T> {
@@ -20,18 +37,24 @@ public class ContextPropagatorOnSingleCreateAction implements Func1<OnSubscribe,
 
 		private ContextState states;
 
-	    public ContextCapturerSingle(Single.OnSubscribe<T> source) {
+		private final boolean captureSubscribers;
+
+	    public ContextCapturerSingle(Single.OnSubscribe<T> source, boolean captureSubscribers) {
 	        this.source = source;
+	        this.captureSubscribers = captureSubscribers;
 	        states = Context.capture();
 	    }
 
 	    @Override
 	    public void call(SingleSubscriber<? super T> t) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
-	    		source.call(new OnAssemblySingleSubscriber<T>(t, states));
+	    		if(captureSubscribers)
+	    			source.call(new OnAssemblySingleSubscriber<T>(t, states));
+	    		else
+	    			source.call(t);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 	    }
 
@@ -49,21 +72,21 @@ public class ContextPropagatorOnSingleCreateAction implements Func1<OnSubscribe,
 
 	        @Override
 	        public void onError(Throwable e) {
-	        	ContextState previousStates = states.install();
+	        	states.enter();
 				try {
 					actual.onError(e);
 				}finally {
-					previousStates.restore();
+					states.exit();
 				}
 	        }
 
 	        @Override
 	        public void onSuccess(T t) {
-	        	ContextState previousStates = states.install();
+	        	states.enter();
 				try {
 					actual.onSuccess(t);
 				}finally {
-					previousStates.restore();
+					states.exit();
 				}
 	        }
 	    }
@@ -0,0 +1,104 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import rx.functions.Func1;
+import rx.plugins.RxJavaHooks;
+
+/**
+ * Shares a single {@link rx.plugins.RxJavaHooks} hook slot between several hooks, which are applied in the order
+ * they were added, each to the result of the previous one. Any hook found in the slot when the chain is modified,
+ * which was not set by this chain, is kept as the last hook of the chain, after the hooks it already had, unless the
+ * slot was cleared, or reset to its default hook which delegates to {@link rx.plugins.RxJavaPlugins}, in which case
+ * the chain starts over from what it holds.
+ *
+ * @param <T> the type of the hooked values
+ * @see RxJava1HookChains
+ */
+public final class HookChain<T> implements Func1<T, T> {
+
+	private final Supplier<Func1<T, T>> getter;
+	private final Consumer<HookChain<T>> setter;
+	private volatile Func1<T, T>[] hooks = newArray(0);
+
+	HookChain(Supplier<Func1<T, T>> getter, Consumer<HookChain<T>> setter) {
+		this.getter = getter;
+		this.setter = setter;
+	}
+
+	/**
+	 * Adds a hook at the end of this chain, and installs this chain in its slot.
+	 * @param hook the hook to add
+	 */
+	public synchronized void add(Func1<T, T> hook) {
+		List<Func1<T, T>> hooks = currentHooks();
+		hooks.add(hook);
+		update(hooks);
+	}
+
+	/**
+	 * Removes a hook from this chain, and uninstalls this chain from its slot if it is now empty.
+	 * @param hook the hook to remove
+	 * @return true if the hook was part of this chain
+	 */
+	public synchronized boolean remove(Func1<T, T> hook) {
+		List<Func1<T, T>> hooks = currentHooks();
+		if(!hooks.remove(hook))
+			return false;
+		update(hooks);
+		return true;
+	}
+
+	/**
+	 * @return the hooks currently installed in this chain's slot, in order
+	 */
+	public synchronized List<Func1<T, T>> getHooks() {
+		return currentHooks();
+	}
+
+	private List<Func1<T, T>> currentHooks() {
+		Func1<T, T> installed = getter.get();
+		if(installed == this)
+			return new ArrayList<>(Arrays.asList(hooks));
+		List<Func1<T, T>> ret = new ArrayList<>();
+		// the slot was cleared, or reset to its default hook which delegates to RxJavaPlugins, so we forget our
+		// hooks and start over
+		if(installed == null || isDefault(installed)) {
+			hooks = newArray(0);
+			if(installed != null)
+				ret.add(installed);
+			return ret;
+		}
+		// another tool set its hook behind our back, which is kept after ours
+		ret.addAll(Arrays.asList(hooks));
+		if(!ret.contains(installed))
+			ret.add(installed);
+		return ret;
+	}
+
+	private static boolean isDefault(Object hook) {
+		return hook.getClass().getName().startsWith(RxJavaHooks.class.getName()+"$");
+	}
+
+	private void update(List<Func1<T, T>> hooks) {
+		this.hooks = hooks.toArray(newArray(hooks.size()));
+		setter.accept(hooks.isEmpty() ? null : this);
+	}
+
+	@Override
+	public T call(T t) {
+		for (Func1<T, T> hook : hooks) {
+			t = hook.call(t);
+		}
+		return t;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Func1<T, T>[] newArray(int size) {
+		return new Func1[size];
+	}
+}
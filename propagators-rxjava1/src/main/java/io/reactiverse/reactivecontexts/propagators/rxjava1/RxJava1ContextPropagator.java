@@ -1,23 +1,94 @@
 package io.reactiverse.reactivecontexts.propagators.rxjava1;
 
+import java.util.Locale;
+
 import io.reactiverse.reactivecontexts.core.ContextPropagator;
 import rx.Completable;
 import rx.Observable;
+import rx.Scheduler;
 import rx.Single;
-import rx.plugins.RxJavaHooks;
 
 /**
  * Reactive Context propagator for RxJava 1. Supports propagating context to all {@link Single},
- * {@link Observable} and {@link Completable} types.
+ * {@link Observable} and {@link Completable} types, including their lifted operators.
+ * The {@link Mode} selects whether contexts are installed around every signal or once per scheduled action.
+ * Its hooks are added to the {@link RxJava1HookChains}, so they run alongside the hooks of other tools.
  *
  * @author Stéphane Épardaud
  */
 public class RxJava1ContextPropagator implements ContextPropagator {
 
+	/**
+	 * The system property used to select the {@link Mode} of propagators created with the default constructor,
+	 * such as the one loaded by {@link io.reactiverse.reactivecontexts.core.Context}: <code>subscriber</code>
+	 * (the default) or <code>scheduler</code>.
+	 */
+	public static final String MODE_PROPERTY = "io.reactiverse.reactivecontexts.rxjava1.mode";
+
+	/**
+	 * How contexts are propagated to the operators of reactive types.
+	 */
+	public enum Mode {
+		/**
+		 * Installs the contexts around every signal of every subscriber, so they are propagated even when
+		 * signals come from threads that RxJava does not know about.
+		 */
+		SUBSCRIBER,
+		/**
+		 * Installs the contexts around subscribe and around every action scheduled on RxJava {@link Scheduler}s,
+		 * such as an <code>observeOn</code> drain loop, so they are installed once per action instead of once per
+		 * signal. Signals emitted from threads which are not RxJava schedulers, without contexts, do not get them.
+		 */
+		SCHEDULER
+	}
+
+	private final Mode mode;
+
+	private final ContextPropagatorOnSingleCreateAction singleCreate;
+	private final ContextPropagatorOnObservableCreateAction observableCreate;
+	private final ContextPropagatorOnCompleteCreateAction completableCreate;
+	private final ContextPropagatorOnScheduleAction schedule = new ContextPropagatorOnScheduleAction();
+
+	/**
+	 * Creates a propagator using the mode set in the {@link #MODE_PROPERTY} system property.
+	 * @throws IllegalArgumentException if the system property is not a valid mode.
+	 */
+	public RxJava1ContextPropagator() {
+		this(Mode.valueOf(System.getProperty(MODE_PROPERTY, Mode.SUBSCRIBER.name()).toUpperCase(Locale.ROOT)));
+	}
+
+	/**
+	 * Creates a propagator using the given mode.
+	 * @param mode how contexts are propagated
+	 */
+	public RxJava1ContextPropagator(Mode mode) {
+		this.mode = mode;
+		boolean captureSubscribers = mode == Mode.SUBSCRIBER;
+		this.singleCreate = new ContextPropagatorOnSingleCreateAction(captureSubscribers);
+		this.observableCreate = new ContextPropagatorOnObservableCreateAction(captureSubscribers);
+		this.completableCreate = new ContextPropagatorOnCompleteCreateAction(captureSubscribers);
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
 	public void setup() {
-		RxJavaHooks.setOnSingleCreate(new ContextPropagatorOnSingleCreateAction());
-		RxJavaHooks.setOnObservableCreate(new ContextPropagatorOnObservableCreateAction());
-		RxJavaHooks.setOnCompletableCreate(new ContextPropagatorOnCompleteCreateAction());
+		// add to the hook chains rather than replacing other tools' hooks.
+		// lifted operators are created with an OnSubscribeLift, so they go through these hooks too
+		RxJava1HookChains.ON_SINGLE_CREATE.add(singleCreate);
+		RxJava1HookChains.ON_OBSERVABLE_CREATE.add(observableCreate);
+		RxJava1HookChains.ON_COMPLETABLE_CREATE.add(completableCreate);
+		if(mode == Mode.SCHEDULER)
+			RxJava1HookChains.ON_SCHEDULE_ACTION.add(schedule);
+	}
+
+	public void teardown() {
+		// only remove our own hooks
+		RxJava1HookChains.ON_SINGLE_CREATE.remove(singleCreate);
+		RxJava1HookChains.ON_OBSERVABLE_CREATE.remove(observableCreate);
+		RxJava1HookChains.ON_COMPLETABLE_CREATE.remove(completableCreate);
+		RxJava1HookChains.ON_SCHEDULE_ACTION.remove(schedule);
 	}
 
 }
@@ -0,0 +1,37 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava1;
+
+import rx.Completable;
+import rx.Observable;
+import rx.Single;
+import rx.functions.Action0;
+import rx.plugins.RxJavaHooks;
+
+/**
+ * Registry of the {@link RxJavaHooks} hook slots, so that several tools, such as the {@link RxJava1ContextPropagator}
+ * and tracing or metrics libraries, can each add their hooks to the same slot instead of replacing each other's.
+ * Hooks set directly in {@link RxJavaHooks} before a chain is used are kept as the first hook of the chain, and hooks set
+ * directly after that are kept after the hooks of the chain.
+ */
+@SuppressWarnings("rawtypes")
+public final class RxJava1HookChains {
+
+	public static final HookChain<Observable.OnSubscribe> ON_OBSERVABLE_CREATE =
+			new HookChain<>(RxJavaHooks::getOnObservableCreate, RxJavaHooks::setOnObservableCreate);
+	public static final HookChain<Single.OnSubscribe> ON_SINGLE_CREATE =
+			new HookChain<>(RxJavaHooks::getOnSingleCreate, RxJavaHooks::setOnSingleCreate);
+	public static final HookChain<Completable.OnSubscribe> ON_COMPLETABLE_CREATE =
+			new HookChain<>(RxJavaHooks::getOnCompletableCreate, RxJavaHooks::setOnCompletableCreate);
+
+	public static final HookChain<Observable.Operator> ON_OBSERVABLE_LIFT =
+			new HookChain<>(RxJavaHooks::getOnObservableLift, RxJavaHooks::setOnObservableLift);
+	public static final HookChain<Observable.Operator> ON_SINGLE_LIFT =
+			new HookChain<>(RxJavaHooks::getOnSingleLift, RxJavaHooks::setOnSingleLift);
+	public static final HookChain<Completable.Operator> ON_COMPLETABLE_LIFT =
+			new HookChain<>(RxJavaHooks::getOnCompletableLift, RxJavaHooks::setOnCompletableLift);
+
+	public static final HookChain<Action0> ON_SCHEDULE_ACTION =
+			new HookChain<>(RxJavaHooks::getOnScheduleAction, RxJavaHooks::setOnScheduleAction);
+
+	private RxJava1HookChains() {
+	}
+}
@@ -0,0 +1,133 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextMask;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Function;
+
+/**
+ * Scheduler which runs the tasks of another scheduler with a {@link Context#setThreadMask(ContextMask) thread mask},
+ * so that the reactive types observed on it only install the masked contexts.
+ */
+final class ContextMaskScheduler extends Scheduler {
+
+	private final Scheduler scheduler;
+	private final ContextMask mask;
+
+	ContextMaskScheduler(Scheduler scheduler, ContextMask mask) {
+		this.scheduler = scheduler;
+		this.mask = mask;
+	}
+
+	@Override
+	public Worker createWorker() {
+		return new MaskWorker(scheduler.createWorker(), mask);
+	}
+
+	@Override
+	public Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
+		return scheduler.scheduleDirect(new MaskRunnable(run, mask), delay, unit);
+	}
+
+	@Override
+	public Disposable schedulePeriodicallyDirect(Runnable run, long initialDelay, long period, TimeUnit unit) {
+		return scheduler.schedulePeriodicallyDirect(new MaskRunnable(run, mask), initialDelay, period, unit);
+	}
+
+	@Override
+	public long now(TimeUnit unit) {
+		return scheduler.now(unit);
+	}
+
+	@Override
+	public void start() {
+		scheduler.start();
+	}
+
+	@Override
+	public void shutdown() {
+		scheduler.shutdown();
+	}
+
+	final static class MaskWorker extends Worker {
+
+		private final Worker worker;
+		private final ContextMask mask;
+
+		MaskWorker(Worker worker, ContextMask mask) {
+			this.worker = worker;
+			this.mask = mask;
+		}
+
+		@Override
+		public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+			return worker.schedule(new MaskRunnable(run, mask), delay, unit);
+		}
+
+		@Override
+		public Disposable schedulePeriodically(Runnable run, long initialDelay, long period, TimeUnit unit) {
+			return worker.schedulePeriodically(new MaskRunnable(run, mask), initialDelay, period, unit);
+		}
+
+		@Override
+		public long now(TimeUnit unit) {
+			return worker.now(unit);
+		}
+
+		@Override
+		public void dispose() {
+			worker.dispose();
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return worker.isDisposed();
+		}
+	}
+
+	final static class MaskRunnable implements Runnable {
+
+		private final Runnable run;
+		final ContextMask mask;
+
+		MaskRunnable(Runnable run, ContextMask mask) {
+			this.run = run;
+			this.mask = mask;
+		}
+
+		@Override
+		public void run() {
+			ContextMask previousMask = Context.setThreadMask(mask);
+			try {
+				run.run();
+			}finally {
+				Context.setThreadMask(previousMask);
+			}
+		}
+	}
+
+	/**
+	 * Scheduler handler which masks the default scheduler it is called with, reusing the same masked
+	 * scheduler as long as the default scheduler does not change.
+	 */
+	final static class Handler implements Function<Scheduler, Scheduler> {
+
+		private final ContextMask mask;
+		private volatile ContextMaskScheduler last;
+
+		Handler(ContextMask mask) {
+			this.mask = mask;
+		}
+
+		@Override
+		public Scheduler apply(Scheduler scheduler) {
+			ContextMaskScheduler last = this.last;
+			if(last == null || last.scheduler != scheduler)
+				this.last = last = new ContextMaskScheduler(scheduler, mask);
+			return last;
+		}
+	}
+}
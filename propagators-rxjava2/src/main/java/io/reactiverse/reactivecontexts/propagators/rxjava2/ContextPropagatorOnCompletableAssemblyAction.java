@@ -25,11 +25,11 @@ public class ContextPropagatorOnCompletableAssemblyAction implements Function<Co
 
 		@Override
 		protected void subscribeActual(CompletableObserver observer) {
-			ContextState previousContext = context.install();
+			context.enter();
 			try {
 				source.subscribe(observer);
 			}finally {
-				previousContext.restore();
+				context.exit();
 			}
 		}
 
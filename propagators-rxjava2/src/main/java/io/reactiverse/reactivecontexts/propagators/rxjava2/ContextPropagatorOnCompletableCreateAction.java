@@ -27,31 +27,31 @@ public class ContextPropagatorOnCompletableCreateAction
 
 		@Override
 		public void onError(Throwable t) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onError(t);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
 		public void onSubscribe(Disposable d) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onSubscribe(d);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
 		public void onComplete() {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onComplete();
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 	}
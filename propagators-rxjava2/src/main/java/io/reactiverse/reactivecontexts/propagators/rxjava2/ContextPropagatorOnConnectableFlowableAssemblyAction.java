@@ -0,0 +1,75 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava2;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.flowables.ConnectableFlowable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+public class ContextPropagatorOnConnectableFlowableAssemblyAction implements Function<ConnectableFlowable, ConnectableFlowable> {
+
+	@Override
+	public ConnectableFlowable apply(ConnectableFlowable t) throws Exception {
+		// refCount() disposes Disposable sources, such as replay(), to reset them
+		if(t instanceof Disposable)
+			return new ContextPropagatorDisposableConnectableFlowable(t);
+		return new ContextPropagatorConnectableFlowable(t);
+	}
+
+	public class ContextPropagatorConnectableFlowable<T> extends ConnectableFlowable<T> {
+
+		protected ConnectableFlowable<T> source;
+		private ContextState context;
+
+		public ContextPropagatorConnectableFlowable(ConnectableFlowable<T> t) {
+			this.source = t;
+			this.context = Context.capture();
+		}
+
+		@Override
+		protected void subscribeActual(Subscriber<? super T> observer) {
+			context.enter();
+			try {
+				source.subscribe(observer);
+			}finally {
+				context.exit();
+			}
+		}
+
+		@Override
+		public void connect(Consumer<? super Disposable> connection) {
+			// connecting subscribes upstream
+			context.enter();
+			try {
+				source.connect(connection);
+			}finally {
+				context.exit();
+			}
+		}
+	}
+
+	/**
+	 * Forwards {@link Disposable} to its source. The {@code ResettableConnectable} interface of RxJava 2.2+ is not
+	 * forwarded, so {@code refCount()} of a {@code publish()} made with RxJava 2.2+ cannot reconnect.
+	 */
+	public class ContextPropagatorDisposableConnectableFlowable<T> extends ContextPropagatorConnectableFlowable<T> implements Disposable {
+
+		public ContextPropagatorDisposableConnectableFlowable(ConnectableFlowable<T> t) {
+			super(t);
+		}
+
+		@Override
+		public void dispose() {
+			((Disposable) source).dispose();
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return ((Disposable) source).isDisposed();
+		}
+	}
+
+}
@@ -0,0 +1,75 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava2;
+
+import io.reactivex.Observer;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observables.ConnectableObservable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+public class ContextPropagatorOnConnectableObservableAssemblyAction implements Function<ConnectableObservable, ConnectableObservable> {
+
+	@Override
+	public ConnectableObservable apply(ConnectableObservable t) throws Exception {
+		// refCount() disposes Disposable sources, such as replay(), to reset them
+		if(t instanceof Disposable)
+			return new ContextPropagatorDisposableConnectableObservable(t);
+		return new ContextPropagatorConnectableObservable(t);
+	}
+
+	public class ContextPropagatorConnectableObservable<T> extends ConnectableObservable<T> {
+
+		protected ConnectableObservable<T> source;
+		private ContextState context;
+
+		public ContextPropagatorConnectableObservable(ConnectableObservable<T> t) {
+			this.source = t;
+			this.context = Context.capture();
+		}
+
+		@Override
+		protected void subscribeActual(Observer<? super T> observer) {
+			context.enter();
+			try {
+				source.subscribe(observer);
+			}finally {
+				context.exit();
+			}
+		}
+
+		@Override
+		public void connect(Consumer<? super Disposable> connection) {
+			// connecting subscribes upstream
+			context.enter();
+			try {
+				source.connect(connection);
+			}finally {
+				context.exit();
+			}
+		}
+	}
+
+	/**
+	 * Forwards {@link Disposable} to its source. The {@code ResettableConnectable} interface of RxJava 2.2+ is not
+	 * forwarded, so {@code refCount()} of a {@code publish()} made with RxJava 2.2+ cannot reconnect.
+	 */
+	public class ContextPropagatorDisposableConnectableObservable<T> extends ContextPropagatorConnectableObservable<T> implements Disposable {
+
+		public ContextPropagatorDisposableConnectableObservable(ConnectableObservable<T> t) {
+			super(t);
+		}
+
+		@Override
+		public void dispose() {
+			((Disposable) source).dispose();
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return ((Disposable) source).isDisposed();
+		}
+	}
+
+}
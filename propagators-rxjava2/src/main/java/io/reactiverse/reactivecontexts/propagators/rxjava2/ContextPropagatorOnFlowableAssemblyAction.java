@@ -26,11 +26,11 @@ public class ContextPropagatorOnFlowableAssemblyAction implements Function<Flowa
 
 		@Override
 		protected void subscribeActual(Subscriber<? super T> observer) {
-			ContextState previousContext = context.install();
+			context.enter();
 			try {
 				source.subscribe(observer);
 			}finally {
-				previousContext.restore();
+				context.exit();
 			}
 		}
 
@@ -7,6 +7,8 @@ import io.reactiverse.reactivecontexts.core.Context;
 import io.reactiverse.reactivecontexts.core.ContextState;
 import io.reactivex.Flowable;
 import io.reactivex.functions.BiFunction;
+import io.reactivex.internal.fuseable.ConditionalSubscriber;
+import io.reactivex.internal.fuseable.QueueSubscription;
 
 public class ContextPropagatorOnFlowableCreateAction
 		implements BiFunction<Flowable, Subscriber, Subscriber> {
@@ -16,55 +18,125 @@ public class ContextPropagatorOnFlowableCreateAction
 		return new ContextCapturerFlowable<>(flowable, observer);
 	}
 
-	public class ContextCapturerFlowable<T> implements Subscriber<T> {
+	/**
+	 * Installs the contexts around every signal, and around every {@link #poll()} when the subscriber fuses with
+	 * its upstream, so that operators keep their fusion optimisations while their functions run with the contexts.
+	 */
+	public class ContextCapturerFlowable<T> implements ConditionalSubscriber<T>, QueueSubscription<T> {
 
-	    private final Subscriber<T> source;
+	    private final Subscriber<? super T> source;
 		private final ContextState states;
+		private Subscription upstream;
+		private QueueSubscription<T> queue;
 
-		public ContextCapturerFlowable(Flowable<T> observable, Subscriber<T> observer) {
+		public ContextCapturerFlowable(Flowable<T> flowable, Subscriber<? super T> observer) {
 	    	this.source = observer;
 	        this.states = Context.capture();
 		}
 
+		@SuppressWarnings("unchecked")
 		@Override
-		public void onComplete() {
-        	ContextState previousStates = states.install();
+		public void onSubscribe(Subscription s) {
+			upstream = s;
+			if(s instanceof QueueSubscription)
+				queue = (QueueSubscription<T>) s;
+        	states.enter();
 			try {
-	    		source.onComplete();
+	    		source.onSubscribe(this);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onNext(T v) {
+        	states.enter();
+			try {
+	    		source.onNext(v);
 			}finally {
-				previousStates.restore();
+				states.exit();
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public boolean tryOnNext(T v) {
+			if(!(source instanceof ConditionalSubscriber)) {
+				onNext(v);
+				return true;
+			}
+        	states.enter();
+			try {
+	    		return ((ConditionalSubscriber<? super T>) source).tryOnNext(v);
+			}finally {
+				states.exit();
 			}
 		}
 
 		@Override
 		public void onError(Throwable t) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onError(t);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
-		public void onNext(T v) {
-        	ContextState previousStates = states.install();
+		public void onComplete() {
+        	states.enter();
 			try {
-	    		source.onNext(v);
+	    		source.onComplete();
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
-		public void onSubscribe(Subscription s) {
-        	ContextState previousStates = states.install();
+		public void request(long n) {
+			upstream.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			upstream.cancel();
+		}
+
+		@Override
+		public int requestFusion(int mode) {
+			return queue != null ? queue.requestFusion(mode) : NONE;
+		}
+
+		@Override
+		public T poll() throws Exception {
+			// fused upstream operators run their functions when polled
+        	states.enter();
 			try {
-	    		source.onSubscribe(s);
+	    		return queue.poll();
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
-	}
 
+		@Override
+		public boolean isEmpty() {
+			return queue.isEmpty();
+		}
+
+		@Override
+		public void clear() {
+			queue.clear();
+		}
+
+		@Override
+		public boolean offer(T value) {
+			throw new UnsupportedOperationException("Should not be called");
+		}
+
+		@Override
+		public boolean offer(T v1, T v2) {
+			throw new UnsupportedOperationException("Should not be called");
+		}
+	}
 }
@@ -25,11 +25,11 @@ public class ContextPropagatorOnMaybeAssemblyAction implements Function<Maybe, M
 
 		@Override
 		protected void subscribeActual(MaybeObserver<? super T> observer) {
-			ContextState previousContext = context.install();
+			context.enter();
 			try {
 				source.subscribe(observer);
 			}finally {
-				previousContext.restore();
+				context.exit();
 			}
 		}
 
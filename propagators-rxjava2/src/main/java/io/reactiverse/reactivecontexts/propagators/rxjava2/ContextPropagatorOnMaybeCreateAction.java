@@ -27,41 +27,41 @@ public class ContextPropagatorOnMaybeCreateAction
 
 		@Override
 		public void onComplete() {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onComplete();
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
 		public void onError(Throwable t) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onError(t);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
 		public void onSubscribe(Disposable d) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onSubscribe(d);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
 		public void onSuccess(T v) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onSuccess(v);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 	}
@@ -25,11 +25,11 @@ public class ContextPropagatorOnObservableAssemblyAction implements Function<Obs
 
 		@Override
 		protected void subscribeActual(Observer<? super T> observer) {
-			ContextState previousContext = context.install();
+			context.enter();
 			try {
 				source.subscribe(observer);
 			}finally {
-				previousContext.restore();
+				context.exit();
 			}
 		}
 
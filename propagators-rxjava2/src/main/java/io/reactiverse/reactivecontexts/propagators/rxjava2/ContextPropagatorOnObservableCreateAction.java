@@ -6,63 +6,120 @@ import io.reactivex.Observable;
 import io.reactivex.Observer;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.BiFunction;
+import io.reactivex.internal.fuseable.QueueDisposable;
 
 public class ContextPropagatorOnObservableCreateAction
 		implements BiFunction<Observable, Observer, Observer> {
 
 	@Override
 	public Observer apply(Observable observable, Observer observer) throws Exception {
-		return new ContextCapturerObservable(observable, observer);
+		return new ContextCapturerObservable<>(observable, observer);
 	}
 
-	public class ContextCapturerObservable<T> implements Observer<T> {
+	/**
+	 * Installs the contexts around every signal, and around every {@link #poll()} when the observer fuses with
+	 * its upstream, so that operators keep their fusion optimisations while their functions run with the contexts.
+	 */
+	public class ContextCapturerObservable<T> implements Observer<T>, QueueDisposable<T> {
 
-	    private final Observer<T> source;
+	    private final Observer<? super T> source;
 		private final ContextState states;
+		private Disposable upstream;
+		private QueueDisposable<T> queue;
 
-		public ContextCapturerObservable(Observable<T> observable, Observer<T> observer) {
+		public ContextCapturerObservable(Observable<T> observable, Observer<? super T> observer) {
 	    	this.source = observer;
 	        this.states = Context.capture();
 		}
 
+		@SuppressWarnings("unchecked")
 		@Override
-		public void onComplete() {
-        	ContextState previousStates = states.install();
+		public void onSubscribe(Disposable d) {
+			upstream = d;
+			if(d instanceof QueueDisposable)
+				queue = (QueueDisposable<T>) d;
+        	states.enter();
 			try {
-	    		source.onComplete();
+	    		source.onSubscribe(this);
 			}finally {
-				previousStates.restore();
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onNext(T v) {
+        	states.enter();
+			try {
+	    		source.onNext(v);
+			}finally {
+				states.exit();
 			}
 		}
 
 		@Override
 		public void onError(Throwable t) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onError(t);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
-		public void onNext(T v) {
-        	ContextState previousStates = states.install();
+		public void onComplete() {
+        	states.enter();
 			try {
-	    		source.onNext(v);
+	    		source.onComplete();
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
-		public void onSubscribe(Disposable d) {
-        	ContextState previousStates = states.install();
+		public void dispose() {
+			upstream.dispose();
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return upstream.isDisposed();
+		}
+
+		@Override
+		public int requestFusion(int mode) {
+			return queue != null ? queue.requestFusion(mode) : NONE;
+		}
+
+		@Override
+		public T poll() throws Exception {
+			// fused upstream operators run their functions when polled
+        	states.enter();
 			try {
-	    		source.onSubscribe(d);
+	    		return queue.poll();
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
+
+		@Override
+		public boolean isEmpty() {
+			return queue.isEmpty();
+		}
+
+		@Override
+		public void clear() {
+			queue.clear();
+		}
+
+		@Override
+		public boolean offer(T value) {
+			throw new UnsupportedOperationException("Should not be called");
+		}
+
+		@Override
+		public boolean offer(T v1, T v2) {
+			throw new UnsupportedOperationException("Should not be called");
+		}
 	}
 }
@@ -0,0 +1,73 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava2;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactiverse.reactivecontexts.propagators.rxjava2.ContextPropagatorOnFlowableCreateAction.ContextCapturerFlowable;
+import io.reactivex.functions.Function;
+import io.reactivex.parallel.ParallelFlowable;
+
+public class ContextPropagatorOnParallelAssemblyAction implements Function<ParallelFlowable, ParallelFlowable> {
+
+	private final ContextPropagatorOnFlowableCreateAction capturers;
+
+	/**
+	 * Creates an action which installs the contexts around every signal of every rail.
+	 */
+	public ContextPropagatorOnParallelAssemblyAction() {
+		this(true);
+	}
+
+	/**
+	 * @param captureRails false to only install the contexts around subscribe, when the rails get them from
+	 * the {@link ContextPropagatorOnScheduleAction scheduled tasks} instead.
+	 */
+	public ContextPropagatorOnParallelAssemblyAction(boolean captureRails) {
+		this.capturers = captureRails ? new ContextPropagatorOnFlowableCreateAction() : null;
+	}
+
+	@Override
+	public ParallelFlowable apply(ParallelFlowable t) throws Exception {
+		return new ContextPropagatorParallelFlowable(t);
+	}
+
+	public class ContextPropagatorParallelFlowable<T> extends ParallelFlowable<T> {
+
+		private ParallelFlowable<T> source;
+		private ContextState context;
+
+		public ContextPropagatorParallelFlowable(ParallelFlowable<T> t) {
+			this.source = t;
+			this.context = Context.capture();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public void subscribe(Subscriber<? super T>[] subscribers) {
+			if(!validate(subscribers))
+				return;
+			context.enter();
+			try {
+				if(capturers == null) {
+					source.subscribe(subscribers);
+					return;
+				}
+				// there is no subscribe hook for rails, so every rail gets its own capturer here
+				Subscriber<? super T>[] rails = new Subscriber[subscribers.length];
+				for (int i = 0; i < subscribers.length; i++) {
+					rails[i] = capturers.new ContextCapturerFlowable<T>(null, subscribers[i]);
+				}
+				source.subscribe(rails);
+			}finally {
+				context.exit();
+			}
+		}
+
+		@Override
+		public int parallelism() {
+			return source.parallelism();
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava2;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextMask;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactiverse.reactivecontexts.propagators.rxjava2.ContextMaskScheduler.MaskRunnable;
+import io.reactivex.functions.Function;
+
+public class ContextPropagatorOnScheduleAction implements Function<Runnable, Runnable> {
+
+	@Override
+	public Runnable apply(Runnable run) throws Exception {
+		return new ContextCapturerRunnable(run);
+	}
+
+	/**
+	 * Installs the contexts captured when the task was scheduled once around the whole task, such as an
+	 * <code>observeOn</code> drain loop, instead of around every signal.
+	 */
+	public class ContextCapturerRunnable implements Runnable {
+
+		private final Runnable run;
+		private final ContextState states;
+
+		public ContextCapturerRunnable(Runnable run) {
+			this.run = run;
+			this.states = Context.capture();
+		}
+
+		@Override
+		public void run() {
+			// masked schedulers set their mask within our task, too late for us to see it
+			ContextMask mask = run instanceof MaskRunnable ? ((MaskRunnable) run).mask : null;
+			if(mask != null)
+				states.enter(mask);
+			else
+				states.enter();
+			try {
+				run.run();
+			}finally {
+				states.exit();
+			}
+		}
+	}
+
+}
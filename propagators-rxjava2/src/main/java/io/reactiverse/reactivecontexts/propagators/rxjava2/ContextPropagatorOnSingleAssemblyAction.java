@@ -25,11 +25,11 @@ public class ContextPropagatorOnSingleAssemblyAction implements Function<Single,
 
 		@Override
 		protected void subscribeActual(SingleObserver<? super T> observer) {
-			ContextState previousContext = context.install();
+			context.enter();
 			try {
 				source.subscribe(observer);
 			}finally {
-				previousContext.restore();
+				context.exit();
 			}
 		}
 
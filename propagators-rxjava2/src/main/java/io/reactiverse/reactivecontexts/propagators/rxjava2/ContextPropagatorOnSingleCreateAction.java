@@ -26,31 +26,31 @@ public class ContextPropagatorOnSingleCreateAction implements BiFunction<Single,
 
 		@Override
 		public void onError(Throwable t) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onError(t);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
 		public void onSubscribe(Disposable d) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onSubscribe(d);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 
 		@Override
 		public void onSuccess(T v) {
-        	ContextState previousStates = states.install();
+        	states.enter();
 			try {
 	    		source.onSuccess(v);
 			}finally {
-				previousStates.restore();
+				states.exit();
 			}
 		}
 	}
@@ -1,33 +1,180 @@
 package io.reactiverse.reactivecontexts.propagators.rxjava2;
 
+import java.util.Locale;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextMask;
 import io.reactiverse.reactivecontexts.core.ContextPropagator;
 import io.reactivex.Completable;
 import io.reactivex.Flowable;
 import io.reactivex.Maybe;
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
-import io.reactivex.plugins.RxJavaPlugins;
 
 /**
  * Reactive Context propagator for RxJava 1. Supports propagating context to all {@link Single},
- * {@link Observable}, {@link Completable}, {@link Flowable} and {@link Maybe} types.
+ * {@link Observable}, {@link Completable}, {@link Flowable}, {@link Maybe}, {@link io.reactivex.parallel.ParallelFlowable},
+ * {@link io.reactivex.flowables.ConnectableFlowable} and {@link io.reactivex.observables.ConnectableObservable} types.
+ * Reactive types observed on a scheduler masked with {@link #mask(Scheduler, ContextMask)}, or on the
+ * computation or io schedulers once masked with {@link #setComputationSchedulerMask(ContextMask)}
+ * or {@link #setIoSchedulerMask(ContextMask)}, only install the contexts of the masked providers.
+ * The {@link Mode} selects whether contexts are installed around every signal or once per scheduled task.
+ * Its hooks are added to the {@link RxJava2HookChains}, so they run alongside the hooks of other tools.
  *
  * @author Stéphane Épardaud
  */
 public class RxJava2ContextPropagator implements ContextPropagator {
 
+	/**
+	 * The system property used to select the {@link Mode} of propagators created with the default constructor,
+	 * such as the one loaded by {@link Context}: <code>subscriber</code> (the default) or <code>scheduler</code>.
+	 */
+	public static final String MODE_PROPERTY = "io.reactiverse.reactivecontexts.rxjava2.mode";
+
+	/**
+	 * How contexts are propagated to the operators of reactive types.
+	 */
+	public enum Mode {
+		/**
+		 * Installs the contexts around every signal of every subscriber, so they are propagated even when
+		 * signals come from threads that RxJava does not know about.
+		 */
+		SUBSCRIBER,
+		/**
+		 * Installs the contexts around subscribe and around every task scheduled on RxJava {@link Scheduler}s,
+		 * such as an <code>observeOn</code> drain loop, so they are installed once per task instead of once per
+		 * signal. Signals emitted from threads which are not RxJava schedulers, without contexts, do not get them.
+		 */
+		SCHEDULER
+	}
+
+	private static ContextMaskScheduler.Handler computationMask;
+	private static ContextMaskScheduler.Handler ioMask;
+
+	private final Mode mode;
+
+	private final ContextPropagatorOnSingleCreateAction singleCreate = new ContextPropagatorOnSingleCreateAction();
+	private final ContextPropagatorOnCompletableCreateAction completableCreate = new ContextPropagatorOnCompletableCreateAction();
+	private final ContextPropagatorOnFlowableCreateAction flowableCreate = new ContextPropagatorOnFlowableCreateAction();
+	private final ContextPropagatorOnMaybeCreateAction maybeCreate = new ContextPropagatorOnMaybeCreateAction();
+	private final ContextPropagatorOnObservableCreateAction observableCreate = new ContextPropagatorOnObservableCreateAction();
+	private final ContextPropagatorOnScheduleAction schedule = new ContextPropagatorOnScheduleAction();
+
+	private final ContextPropagatorOnSingleAssemblyAction singleAssembly = new ContextPropagatorOnSingleAssemblyAction();
+	private final ContextPropagatorOnCompletableAssemblyAction completableAssembly = new ContextPropagatorOnCompletableAssemblyAction();
+	private final ContextPropagatorOnFlowableAssemblyAction flowableAssembly = new ContextPropagatorOnFlowableAssemblyAction();
+	private final ContextPropagatorOnMaybeAssemblyAction maybeAssembly = new ContextPropagatorOnMaybeAssemblyAction();
+	private final ContextPropagatorOnObservableAssemblyAction observableAssembly = new ContextPropagatorOnObservableAssemblyAction();
+	private final ContextPropagatorOnParallelAssemblyAction parallelAssembly;
+	private final ContextPropagatorOnConnectableFlowableAssemblyAction connectableFlowableAssembly = new ContextPropagatorOnConnectableFlowableAssemblyAction();
+	private final ContextPropagatorOnConnectableObservableAssemblyAction connectableObservableAssembly = new ContextPropagatorOnConnectableObservableAssemblyAction();
+
+	/**
+	 * Creates a propagator using the mode set in the {@link #MODE_PROPERTY} system property.
+	 * @throws IllegalArgumentException if the system property is not a valid mode.
+	 */
+	public RxJava2ContextPropagator() {
+		this(Mode.valueOf(System.getProperty(MODE_PROPERTY, Mode.SUBSCRIBER.name()).toUpperCase(Locale.ROOT)));
+	}
+
+	/**
+	 * Creates a propagator using the given mode.
+	 * @param mode how contexts are propagated
+	 */
+	public RxJava2ContextPropagator(Mode mode) {
+		this.mode = mode;
+		this.parallelAssembly = new ContextPropagatorOnParallelAssemblyAction(mode == Mode.SUBSCRIBER);
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
 	public void setup() {
-		RxJavaPlugins.setOnSingleSubscribe(new ContextPropagatorOnSingleCreateAction());
-		RxJavaPlugins.setOnCompletableSubscribe(new ContextPropagatorOnCompletableCreateAction());
-		RxJavaPlugins.setOnFlowableSubscribe(new ContextPropagatorOnFlowableCreateAction());
-		RxJavaPlugins.setOnMaybeSubscribe(new ContextPropagatorOnMaybeCreateAction());
-		RxJavaPlugins.setOnObservableSubscribe(new ContextPropagatorOnObservableCreateAction());
+		// add to the hook chains rather than replacing other tools' hooks
+		if(mode == Mode.SUBSCRIBER) {
+			RxJava2HookChains.ON_SINGLE_SUBSCRIBE.add(singleCreate);
+			RxJava2HookChains.ON_COMPLETABLE_SUBSCRIBE.add(completableCreate);
+			RxJava2HookChains.ON_FLOWABLE_SUBSCRIBE.add(flowableCreate);
+			RxJava2HookChains.ON_MAYBE_SUBSCRIBE.add(maybeCreate);
+			RxJava2HookChains.ON_OBSERVABLE_SUBSCRIBE.add(observableCreate);
+		}else {
+			RxJava2HookChains.SCHEDULE.add(schedule);
+		}
 		
-		RxJavaPlugins.setOnSingleAssembly(new ContextPropagatorOnSingleAssemblyAction());
-		RxJavaPlugins.setOnCompletableAssembly(new ContextPropagatorOnCompletableAssemblyAction());
-		RxJavaPlugins.setOnFlowableAssembly(new ContextPropagatorOnFlowableAssemblyAction());
-		RxJavaPlugins.setOnMaybeAssembly(new ContextPropagatorOnMaybeAssemblyAction());
-		RxJavaPlugins.setOnObservableAssembly(new ContextPropagatorOnObservableAssemblyAction());
+		RxJava2HookChains.ON_SINGLE_ASSEMBLY.add(singleAssembly);
+		RxJava2HookChains.ON_COMPLETABLE_ASSEMBLY.add(completableAssembly);
+		RxJava2HookChains.ON_FLOWABLE_ASSEMBLY.add(flowableAssembly);
+		RxJava2HookChains.ON_MAYBE_ASSEMBLY.add(maybeAssembly);
+		RxJava2HookChains.ON_OBSERVABLE_ASSEMBLY.add(observableAssembly);
+		RxJava2HookChains.ON_PARALLEL_ASSEMBLY.add(parallelAssembly);
+		RxJava2HookChains.ON_CONNECTABLE_FLOWABLE_ASSEMBLY.add(connectableFlowableAssembly);
+		RxJava2HookChains.ON_CONNECTABLE_OBSERVABLE_ASSEMBLY.add(connectableObservableAssembly);
+	}
+
+	/**
+	 * Wraps a scheduler so that the reactive types observed or subscribed on it only install the contexts of the
+	 * given mask, for example to only propagate a tracing context to CPU-bound operators.
+	 * @param scheduler the scheduler to wrap
+	 * @param mask the providers to install, from {@link Context#mask(io.reactiverse.reactivecontexts.core.ContextKey...)}
+	 * @return a scheduler running the tasks of the given scheduler with the given mask
+	 * @see Context#setThreadMask(ContextMask)
+	 */
+	public static Scheduler mask(Scheduler scheduler, ContextMask mask) {
+		return new ContextMaskScheduler(scheduler, mask);
+	}
+
+	/**
+	 * Masks the computation scheduler returned by {@link io.reactivex.schedulers.Schedulers#computation()}.
+	 * This replaces the previous computation scheduler mask, but not the other handlers of
+	 * {@link RxJava2HookChains#COMPUTATION_SCHEDULER}.
+	 * @param mask the providers to install, or null to remove the mask
+	 * @see #mask(Scheduler, ContextMask)
+	 */
+	public static synchronized void setComputationSchedulerMask(ContextMask mask) {
+		if(computationMask != null)
+			RxJava2HookChains.COMPUTATION_SCHEDULER.remove(computationMask);
+		computationMask = mask != null ? new ContextMaskScheduler.Handler(mask) : null;
+		if(computationMask != null)
+			RxJava2HookChains.COMPUTATION_SCHEDULER.add(computationMask);
+	}
+
+	/**
+	 * Masks the io scheduler returned by {@link io.reactivex.schedulers.Schedulers#io()}.
+	 * This replaces the previous io scheduler mask, but not the other handlers of
+	 * {@link RxJava2HookChains#IO_SCHEDULER}.
+	 * @param mask the providers to install, or null to remove the mask
+	 * @see #mask(Scheduler, ContextMask)
+	 */
+	public static synchronized void setIoSchedulerMask(ContextMask mask) {
+		if(ioMask != null)
+			RxJava2HookChains.IO_SCHEDULER.remove(ioMask);
+		ioMask = mask != null ? new ContextMaskScheduler.Handler(mask) : null;
+		if(ioMask != null)
+			RxJava2HookChains.IO_SCHEDULER.add(ioMask);
+	}
+
+	public void teardown() {
+		// only remove our own hooks
+		RxJava2HookChains.ON_SINGLE_SUBSCRIBE.remove(singleCreate);
+		RxJava2HookChains.ON_COMPLETABLE_SUBSCRIBE.remove(completableCreate);
+		RxJava2HookChains.ON_FLOWABLE_SUBSCRIBE.remove(flowableCreate);
+		RxJava2HookChains.ON_MAYBE_SUBSCRIBE.remove(maybeCreate);
+		RxJava2HookChains.ON_OBSERVABLE_SUBSCRIBE.remove(observableCreate);
+		RxJava2HookChains.SCHEDULE.remove(schedule);
+
+		RxJava2HookChains.ON_SINGLE_ASSEMBLY.remove(singleAssembly);
+		RxJava2HookChains.ON_COMPLETABLE_ASSEMBLY.remove(completableAssembly);
+		RxJava2HookChains.ON_FLOWABLE_ASSEMBLY.remove(flowableAssembly);
+		RxJava2HookChains.ON_MAYBE_ASSEMBLY.remove(maybeAssembly);
+		RxJava2HookChains.ON_OBSERVABLE_ASSEMBLY.remove(observableAssembly);
+		RxJava2HookChains.ON_PARALLEL_ASSEMBLY.remove(parallelAssembly);
+		RxJava2HookChains.ON_CONNECTABLE_FLOWABLE_ASSEMBLY.remove(connectableFlowableAssembly);
+		RxJava2HookChains.ON_CONNECTABLE_OBSERVABLE_ASSEMBLY.remove(connectableObservableAssembly);
+
+		setComputationSchedulerMask(null);
+		setIoSchedulerMask(null);
 	}
 
 }
@@ -0,0 +1,66 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava2;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableObserver;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.MaybeObserver;
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.flowables.ConnectableFlowable;
+import io.reactivex.observables.ConnectableObservable;
+import io.reactivex.parallel.ParallelFlowable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Registry of the {@link RxJavaPlugins} hook slots, so that several tools, such as the {@link RxJava2ContextPropagator}
+ * and tracing or metrics libraries, can each add their hooks to the same slot instead of replacing each other's.
+ * Hooks set directly in {@link RxJavaPlugins} before a chain is used are kept as the first hook of the chain, and hooks set
+ * directly after that are kept after the hooks of the chain.
+ */
+@SuppressWarnings("rawtypes")
+public final class RxJava2HookChains {
+
+	public static final BiHookChain<Single, SingleObserver> ON_SINGLE_SUBSCRIBE =
+			new BiHookChain<>(RxJavaPlugins::getOnSingleSubscribe, RxJavaPlugins::setOnSingleSubscribe);
+	public static final BiHookChain<Completable, CompletableObserver> ON_COMPLETABLE_SUBSCRIBE =
+			new BiHookChain<>(RxJavaPlugins::getOnCompletableSubscribe, RxJavaPlugins::setOnCompletableSubscribe);
+	public static final BiHookChain<Flowable, Subscriber> ON_FLOWABLE_SUBSCRIBE =
+			new BiHookChain<>(RxJavaPlugins::getOnFlowableSubscribe, RxJavaPlugins::setOnFlowableSubscribe);
+	public static final BiHookChain<Maybe, MaybeObserver> ON_MAYBE_SUBSCRIBE =
+			new BiHookChain<>(RxJavaPlugins::getOnMaybeSubscribe, RxJavaPlugins::setOnMaybeSubscribe);
+	public static final BiHookChain<Observable, Observer> ON_OBSERVABLE_SUBSCRIBE =
+			new BiHookChain<>(RxJavaPlugins::getOnObservableSubscribe, RxJavaPlugins::setOnObservableSubscribe);
+
+	public static final HookChain<Single> ON_SINGLE_ASSEMBLY =
+			new HookChain<>(RxJavaPlugins::getOnSingleAssembly, RxJavaPlugins::setOnSingleAssembly);
+	public static final HookChain<Completable> ON_COMPLETABLE_ASSEMBLY =
+			new HookChain<>(RxJavaPlugins::getOnCompletableAssembly, RxJavaPlugins::setOnCompletableAssembly);
+	public static final HookChain<Flowable> ON_FLOWABLE_ASSEMBLY =
+			new HookChain<>(RxJavaPlugins::getOnFlowableAssembly, RxJavaPlugins::setOnFlowableAssembly);
+	public static final HookChain<Maybe> ON_MAYBE_ASSEMBLY =
+			new HookChain<>(RxJavaPlugins::getOnMaybeAssembly, RxJavaPlugins::setOnMaybeAssembly);
+	public static final HookChain<Observable> ON_OBSERVABLE_ASSEMBLY =
+			new HookChain<>(RxJavaPlugins::getOnObservableAssembly, RxJavaPlugins::setOnObservableAssembly);
+	public static final HookChain<ParallelFlowable> ON_PARALLEL_ASSEMBLY =
+			new HookChain<>(RxJavaPlugins::getOnParallelAssembly, RxJavaPlugins::setOnParallelAssembly);
+	public static final HookChain<ConnectableFlowable> ON_CONNECTABLE_FLOWABLE_ASSEMBLY =
+			new HookChain<>(RxJavaPlugins::getOnConnectableFlowableAssembly, RxJavaPlugins::setOnConnectableFlowableAssembly);
+	public static final HookChain<ConnectableObservable> ON_CONNECTABLE_OBSERVABLE_ASSEMBLY =
+			new HookChain<>(RxJavaPlugins::getOnConnectableObservableAssembly, RxJavaPlugins::setOnConnectableObservableAssembly);
+
+	public static final HookChain<Runnable> SCHEDULE =
+			new HookChain<>(RxJavaPlugins::getScheduleHandler, RxJavaPlugins::setScheduleHandler);
+	public static final HookChain<Scheduler> COMPUTATION_SCHEDULER =
+			new HookChain<>(RxJavaPlugins::getComputationSchedulerHandler, RxJavaPlugins::setComputationSchedulerHandler);
+	public static final HookChain<Scheduler> IO_SCHEDULER =
+			new HookChain<>(RxJavaPlugins::getIoSchedulerHandler, RxJavaPlugins::setIoSchedulerHandler);
+
+	private RxJava2HookChains() {
+	}
+}
@@ -0,0 +1,94 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import io.reactivex.rxjava3.functions.BiFunction;
+
+/**
+ * Shares a single subscribe hook slot of {@link io.reactivex.rxjava3.plugins.RxJavaPlugins} between several hooks, like
+ * {@link HookChain}: every hook is called with the reactive type and the subscriber returned by the previous hook.
+ *
+ * @param <S> the type of the subscribed reactive types
+ * @param <T> the type of the hooked subscribers
+ * @see RxJava3HookChains
+ */
+public final class BiHookChain<S, T> implements BiFunction<S, T, T> {
+
+	private final Supplier<BiFunction<? super S, ? super T, ? extends T>> getter;
+	private final Consumer<BiHookChain<S, T>> setter;
+	private volatile BiFunction<? super S, ? super T, ? extends T>[] hooks = newArray(0);
+
+	BiHookChain(Supplier<BiFunction<? super S, ? super T, ? extends T>> getter, Consumer<BiHookChain<S, T>> setter) {
+		this.getter = getter;
+		this.setter = setter;
+	}
+
+	/**
+	 * Adds a hook at the end of this chain, and installs this chain in its slot.
+	 * @param hook the hook to add
+	 */
+	public synchronized void add(BiFunction<? super S, ? super T, ? extends T> hook) {
+		List<BiFunction<? super S, ? super T, ? extends T>> hooks = currentHooks();
+		hooks.add(hook);
+		update(hooks);
+	}
+
+	/**
+	 * Removes a hook from this chain, and uninstalls this chain from its slot if it is now empty.
+	 * @param hook the hook to remove
+	 * @return true if the hook was part of this chain
+	 */
+	public synchronized boolean remove(BiFunction<? super S, ? super T, ? extends T> hook) {
+		List<BiFunction<? super S, ? super T, ? extends T>> hooks = currentHooks();
+		if(!hooks.remove(hook))
+			return false;
+		update(hooks);
+		return true;
+	}
+
+	/**
+	 * @return the hooks currently installed in this chain's slot, in order
+	 */
+	public synchronized List<BiFunction<? super S, ? super T, ? extends T>> getHooks() {
+		return currentHooks();
+	}
+
+	private List<BiFunction<? super S, ? super T, ? extends T>> currentHooks() {
+		BiFunction<? super S, ? super T, ? extends T> installed = getter.get();
+		if(installed == this)
+			return new ArrayList<>(Arrays.asList(hooks));
+		List<BiFunction<? super S, ? super T, ? extends T>> ret = new ArrayList<>();
+		// the slot was reset, so we forget our hooks and start over
+		if(installed == null) {
+			hooks = newArray(0);
+			return ret;
+		}
+		// another tool set its hook behind our back, which is kept after ours
+		ret.addAll(Arrays.asList(hooks));
+		if(!ret.contains(installed))
+			ret.add(installed);
+		return ret;
+	}
+
+	private void update(List<BiFunction<? super S, ? super T, ? extends T>> hooks) {
+		this.hooks = hooks.toArray(newArray(hooks.size()));
+		setter.accept(hooks.isEmpty() ? null : this);
+	}
+
+	@Override
+	public T apply(S source, T t) throws Throwable {
+		for (BiFunction<? super S, ? super T, ? extends T> hook : hooks) {
+			t = hook.apply(source, t);
+		}
+		return t;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <S, T> BiFunction<? super S, ? super T, ? extends T>[] newArray(int size) {
+		return new BiFunction[size];
+	}
+}
@@ -0,0 +1,38 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.CompletableObserver;
+import io.reactivex.rxjava3.functions.Function;
+
+public class ContextPropagatorOnCompletableAssemblyAction implements Function<Completable, Completable> {
+
+	@Override
+	public Completable apply(Completable t) throws Throwable {
+		return new ContextPropagatorCompletable(t);
+	}
+
+	public class ContextPropagatorCompletable extends Completable {
+
+		private Completable source;
+		private ContextState context;
+
+		public ContextPropagatorCompletable(Completable t) {
+			this.source = t;
+			this.context = Context.capture();
+		}
+
+		@Override
+		protected void subscribeActual(CompletableObserver observer) {
+			context.enter();
+			try {
+				source.subscribe(observer);
+			}finally {
+				context.exit();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,59 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.CompletableObserver;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.BiFunction;
+
+public class ContextPropagatorOnCompletableCreateAction
+		implements BiFunction<Completable, CompletableObserver, CompletableObserver> {
+
+	@Override
+	public CompletableObserver apply(Completable completable, CompletableObserver observer) throws Throwable {
+		return new ContextCapturerCompletable(completable, observer);
+	}
+
+	final static class ContextCapturerCompletable implements CompletableObserver {
+
+	    private final CompletableObserver source;
+		private final ContextState states;
+
+	    public ContextCapturerCompletable(Completable s, CompletableObserver o) {
+	    	this.source = o;
+	        this.states = Context.capture();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+        	states.enter();
+			try {
+	    		source.onError(t);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onSubscribe(Disposable d) {
+        	states.enter();
+			try {
+	    		source.onSubscribe(d);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onComplete() {
+        	states.enter();
+			try {
+	    		source.onComplete();
+			}finally {
+				states.exit();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.operators.ScalarSupplier;
+
+public class ContextPropagatorOnFlowableAssemblyAction implements Function<Flowable, Flowable> {
+
+	@Override
+	public Flowable apply(Flowable t) throws Throwable {
+		// constant sources run no code when subscribed, and operators optimise them when they can see them
+		if(t instanceof ScalarSupplier)
+			return t;
+		return new ContextPropagatorFlowable(t);
+	}
+
+	public class ContextPropagatorFlowable<T> extends Flowable<T> {
+
+		private Flowable<T> source;
+		private ContextState context;
+
+		public ContextPropagatorFlowable(Flowable<T> t) {
+			this.source = t;
+			this.context = Context.capture();
+		}
+
+		@Override
+		protected void subscribeActual(Subscriber<? super T> observer) {
+			context.enter();
+			try {
+				source.subscribe(observer);
+			}finally {
+				context.exit();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,144 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.functions.BiFunction;
+import io.reactivex.rxjava3.operators.ConditionalSubscriber;
+import io.reactivex.rxjava3.operators.QueueSubscription;
+
+public class ContextPropagatorOnFlowableCreateAction
+		implements BiFunction<Flowable, Subscriber, Subscriber> {
+
+	// the RxJavaPlugins hooks are declared with raw types
+	@SuppressWarnings("unchecked")
+	@Override
+	public Subscriber apply(Flowable flowable, Subscriber observer) throws Throwable {
+		return new ContextCapturerFlowable<Object>(observer);
+	}
+
+	/**
+	 * Installs the contexts around every signal, and around every {@link #poll()} when the subscriber fuses with
+	 * its upstream, so that operators keep their fusion optimisations while their functions run with the contexts.
+	 */
+	public static class ContextCapturerFlowable<T> implements ConditionalSubscriber<T>, QueueSubscription<T> {
+
+	    private final Subscriber<? super T> source;
+		private final ContextState states;
+		private Subscription upstream;
+		private QueueSubscription<T> queue;
+
+		public ContextCapturerFlowable(Subscriber<? super T> observer) {
+	    	this.source = observer;
+	        this.states = Context.capture();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public void onSubscribe(Subscription s) {
+			upstream = s;
+			if(s instanceof QueueSubscription)
+				queue = (QueueSubscription<T>) s;
+        	states.enter();
+			try {
+	    		source.onSubscribe(this);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onNext(T v) {
+        	states.enter();
+			try {
+	    		source.onNext(v);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public boolean tryOnNext(T v) {
+			if(!(source instanceof ConditionalSubscriber)) {
+				onNext(v);
+				return true;
+			}
+        	states.enter();
+			try {
+	    		return ((ConditionalSubscriber<? super T>) source).tryOnNext(v);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+        	states.enter();
+			try {
+	    		source.onError(t);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onComplete() {
+        	states.enter();
+			try {
+	    		source.onComplete();
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void request(long n) {
+			upstream.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			upstream.cancel();
+		}
+
+		@Override
+		public int requestFusion(int mode) {
+			return queue != null ? queue.requestFusion(mode) : NONE;
+		}
+
+		@Override
+		public T poll() throws Throwable {
+			// fused upstream operators run their functions when polled
+        	states.enter();
+			try {
+	    		return queue.poll();
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return queue.isEmpty();
+		}
+
+		@Override
+		public void clear() {
+			queue.clear();
+		}
+
+		@Override
+		public boolean offer(T value) {
+			throw new UnsupportedOperationException("Should not be called");
+		}
+
+		@Override
+		public boolean offer(T v1, T v2) {
+			throw new UnsupportedOperationException("Should not be called");
+		}
+	}
+}
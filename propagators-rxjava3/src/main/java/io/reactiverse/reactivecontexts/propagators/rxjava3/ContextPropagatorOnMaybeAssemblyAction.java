@@ -0,0 +1,42 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.MaybeObserver;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.operators.ScalarSupplier;
+
+public class ContextPropagatorOnMaybeAssemblyAction implements Function<Maybe, Maybe> {
+
+	@Override
+	public Maybe apply(Maybe t) throws Throwable {
+		// constant sources run no code when subscribed, and operators optimise them when they can see them
+		if(t instanceof ScalarSupplier)
+			return t;
+		return new ContextPropagatorMaybe(t);
+	}
+
+	public class ContextPropagatorMaybe<T> extends Maybe<T> {
+
+		private Maybe<T> source;
+		private ContextState context;
+
+		public ContextPropagatorMaybe(Maybe<T> t) {
+			this.source = t;
+			this.context = Context.capture();
+		}
+
+		@Override
+		protected void subscribeActual(MaybeObserver<? super T> observer) {
+			context.enter();
+			try {
+				source.subscribe(observer);
+			}finally {
+				context.exit();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,69 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.MaybeObserver;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.BiFunction;
+
+public class ContextPropagatorOnMaybeCreateAction
+		implements BiFunction<Maybe, MaybeObserver, MaybeObserver> {
+
+	@Override
+	public MaybeObserver apply(Maybe maybe, MaybeObserver observer) throws Throwable {
+		return new ContextCapturerMaybe<>(maybe, observer);
+	}
+
+	public class ContextCapturerMaybe<T> implements MaybeObserver<T> {
+
+	    private final MaybeObserver<T> source;
+		private final ContextState states;
+
+		public ContextCapturerMaybe(Maybe<T> observable, MaybeObserver<T> observer) {
+	    	this.source = observer;
+	        this.states = Context.capture();
+		}
+
+		@Override
+		public void onComplete() {
+        	states.enter();
+			try {
+	    		source.onComplete();
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+        	states.enter();
+			try {
+	    		source.onError(t);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onSubscribe(Disposable d) {
+        	states.enter();
+			try {
+	    		source.onSubscribe(d);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onSuccess(T v) {
+        	states.enter();
+			try {
+	    		source.onSuccess(v);
+			}finally {
+				states.exit();
+			}
+		}
+	}
+
+}
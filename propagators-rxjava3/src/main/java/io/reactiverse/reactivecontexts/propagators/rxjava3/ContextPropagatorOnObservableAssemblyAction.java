@@ -0,0 +1,42 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Observer;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.operators.ScalarSupplier;
+
+public class ContextPropagatorOnObservableAssemblyAction implements Function<Observable, Observable> {
+
+	@Override
+	public Observable apply(Observable t) throws Throwable {
+		// constant sources run no code when subscribed, and operators optimise them when they can see them
+		if(t instanceof ScalarSupplier)
+			return t;
+		return new ContextPropagatorObservable(t);
+	}
+
+	public class ContextPropagatorObservable<T> extends Observable<T> {
+
+		private Observable<T> source;
+		private ContextState context;
+
+		public ContextPropagatorObservable(Observable<T> t) {
+			this.source = t;
+			this.context = Context.capture();
+		}
+
+		@Override
+		protected void subscribeActual(Observer<? super T> observer) {
+			context.enter();
+			try {
+				source.subscribe(observer);
+			}finally {
+				context.exit();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,127 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Observer;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.BiFunction;
+import io.reactivex.rxjava3.operators.QueueDisposable;
+
+public class ContextPropagatorOnObservableCreateAction
+		implements BiFunction<Observable, Observer, Observer> {
+
+	// the RxJavaPlugins hooks are declared with raw types
+	@SuppressWarnings("unchecked")
+	@Override
+	public Observer apply(Observable observable, Observer observer) throws Throwable {
+		return new ContextCapturerObservable<Object>(observer);
+	}
+
+	/**
+	 * Installs the contexts around every signal, and around every {@link #poll()} when the observer fuses with
+	 * its upstream, so that operators keep their fusion optimisations while their functions run with the contexts.
+	 */
+	public static class ContextCapturerObservable<T> implements Observer<T>, QueueDisposable<T> {
+
+	    private final Observer<? super T> source;
+		private final ContextState states;
+		private Disposable upstream;
+		private QueueDisposable<T> queue;
+
+		public ContextCapturerObservable(Observer<? super T> observer) {
+	    	this.source = observer;
+	        this.states = Context.capture();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public void onSubscribe(Disposable d) {
+			upstream = d;
+			if(d instanceof QueueDisposable)
+				queue = (QueueDisposable<T>) d;
+        	states.enter();
+			try {
+	    		source.onSubscribe(this);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onNext(T v) {
+        	states.enter();
+			try {
+	    		source.onNext(v);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+        	states.enter();
+			try {
+	    		source.onError(t);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onComplete() {
+        	states.enter();
+			try {
+	    		source.onComplete();
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void dispose() {
+			upstream.dispose();
+		}
+
+		@Override
+		public boolean isDisposed() {
+			return upstream.isDisposed();
+		}
+
+		@Override
+		public int requestFusion(int mode) {
+			return queue != null ? queue.requestFusion(mode) : NONE;
+		}
+
+		@Override
+		public T poll() throws Throwable {
+			// fused upstream operators run their functions when polled
+        	states.enter();
+			try {
+	    		return queue.poll();
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return queue.isEmpty();
+		}
+
+		@Override
+		public void clear() {
+			queue.clear();
+		}
+
+		@Override
+		public boolean offer(T value) {
+			throw new UnsupportedOperationException("Should not be called");
+		}
+
+		@Override
+		public boolean offer(T v1, T v2) {
+			throw new UnsupportedOperationException("Should not be called");
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.parallel.ParallelFlowable;
+
+public class ContextPropagatorOnParallelAssemblyAction implements Function<ParallelFlowable, ParallelFlowable> {
+
+	// the RxJavaPlugins hooks are declared with raw types
+	@SuppressWarnings("unchecked")
+	@Override
+	public ParallelFlowable apply(ParallelFlowable t) throws Throwable {
+		return new ContextPropagatorParallelFlowable<Object>(t);
+	}
+
+	public class ContextPropagatorParallelFlowable<T> extends ParallelFlowable<T> {
+
+		private ParallelFlowable<T> source;
+		private ContextState context;
+
+		public ContextPropagatorParallelFlowable(ParallelFlowable<T> t) {
+			this.source = t;
+			this.context = Context.capture();
+		}
+
+		@Override
+		public void subscribe(Subscriber<? super T>[] subscribers) {
+			if(!validate(subscribers))
+				return;
+			context.enter();
+			try {
+				source.subscribe(subscribers);
+			}finally {
+				context.exit();
+			}
+		}
+
+		@Override
+		public int parallelism() {
+			return source.parallelism();
+		}
+	}
+
+}
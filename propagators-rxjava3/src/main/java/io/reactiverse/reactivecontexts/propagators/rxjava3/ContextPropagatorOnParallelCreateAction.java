@@ -0,0 +1,22 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactiverse.reactivecontexts.propagators.rxjava3.ContextPropagatorOnFlowableCreateAction.ContextCapturerFlowable;
+import io.reactivex.rxjava3.functions.BiFunction;
+import io.reactivex.rxjava3.parallel.ParallelFlowable;
+
+public class ContextPropagatorOnParallelCreateAction
+		implements BiFunction<ParallelFlowable, Subscriber[], Subscriber[]> {
+
+	// the RxJavaPlugins hooks are declared with raw types
+	@SuppressWarnings("unchecked")
+	@Override
+	public Subscriber[] apply(ParallelFlowable flowable, Subscriber[] subscribers) throws Throwable {
+		Subscriber[] ret = new Subscriber[subscribers.length];
+		for (int i = 0; i < subscribers.length; i++) {
+			ret[i] = new ContextCapturerFlowable<Object>(subscribers[i]);
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,38 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.SingleObserver;
+import io.reactivex.rxjava3.functions.Function;
+
+public class ContextPropagatorOnSingleAssemblyAction implements Function<Single, Single> {
+
+	@Override
+	public Single apply(Single t) throws Throwable {
+		return new ContextPropagatorSingle(t);
+	}
+
+	public class ContextPropagatorSingle<T> extends Single<T> {
+
+		private Single<T> source;
+		private ContextState context;
+
+		public ContextPropagatorSingle(Single<T> t) {
+			this.source = t;
+			this.context = Context.capture();
+		}
+
+		@Override
+		protected void subscribeActual(SingleObserver<? super T> observer) {
+			context.enter();
+			try {
+				source.subscribe(observer);
+			}finally {
+				context.exit();
+			}
+		}
+
+	}
+
+}
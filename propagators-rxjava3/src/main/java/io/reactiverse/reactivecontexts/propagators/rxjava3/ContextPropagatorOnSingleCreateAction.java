@@ -0,0 +1,57 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextState;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.SingleObserver;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.BiFunction;
+
+public class ContextPropagatorOnSingleCreateAction implements BiFunction<Single, SingleObserver, SingleObserver> {
+
+	@Override
+	public SingleObserver apply(Single s, SingleObserver o) throws Throwable {
+		return new ContextCapturerSingle(s, o);
+	}
+
+	final static class ContextCapturerSingle<T> implements SingleObserver<T> {
+
+	    private final SingleObserver<T> source;
+		private final ContextState states;
+
+	    public ContextCapturerSingle(Single<T> s, SingleObserver<T> o) {
+	    	this.source = o;
+	        this.states = Context.capture();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+        	states.enter();
+			try {
+	    		source.onError(t);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onSubscribe(Disposable d) {
+        	states.enter();
+			try {
+	    		source.onSubscribe(d);
+			}finally {
+				states.exit();
+			}
+		}
+
+		@Override
+		public void onSuccess(T v) {
+        	states.enter();
+			try {
+	    		source.onSuccess(v);
+			}finally {
+				states.exit();
+			}
+		}
+	}
+}
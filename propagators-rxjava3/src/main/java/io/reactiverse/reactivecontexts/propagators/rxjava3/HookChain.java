@@ -0,0 +1,95 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import io.reactivex.rxjava3.functions.Function;
+
+/**
+ * Shares a single {@link io.reactivex.rxjava3.plugins.RxJavaPlugins} hook slot between several hooks, which are applied in
+ * the order they were added, each to the result of the previous one. Any hook found in the slot when the chain is
+ * modified, which was not set by this chain, is kept as the last hook of the chain, after the hooks it already had,
+ * unless the slot was reset to <code>null</code>, in which case the chain starts over.
+ *
+ * @param <T> the type of the hooked values
+ * @see RxJava3HookChains
+ */
+public final class HookChain<T> implements Function<T, T> {
+
+	private final Supplier<Function<? super T, ? extends T>> getter;
+	private final Consumer<HookChain<T>> setter;
+	private volatile Function<? super T, ? extends T>[] hooks = newArray(0);
+
+	HookChain(Supplier<Function<? super T, ? extends T>> getter, Consumer<HookChain<T>> setter) {
+		this.getter = getter;
+		this.setter = setter;
+	}
+
+	/**
+	 * Adds a hook at the end of this chain, and installs this chain in its slot.
+	 * @param hook the hook to add
+	 */
+	public synchronized void add(Function<? super T, ? extends T> hook) {
+		List<Function<? super T, ? extends T>> hooks = currentHooks();
+		hooks.add(hook);
+		update(hooks);
+	}
+
+	/**
+	 * Removes a hook from this chain, and uninstalls this chain from its slot if it is now empty.
+	 * @param hook the hook to remove
+	 * @return true if the hook was part of this chain
+	 */
+	public synchronized boolean remove(Function<? super T, ? extends T> hook) {
+		List<Function<? super T, ? extends T>> hooks = currentHooks();
+		if(!hooks.remove(hook))
+			return false;
+		update(hooks);
+		return true;
+	}
+
+	/**
+	 * @return the hooks currently installed in this chain's slot, in order
+	 */
+	public synchronized List<Function<? super T, ? extends T>> getHooks() {
+		return currentHooks();
+	}
+
+	private List<Function<? super T, ? extends T>> currentHooks() {
+		Function<? super T, ? extends T> installed = getter.get();
+		if(installed == this)
+			return new ArrayList<>(Arrays.asList(hooks));
+		List<Function<? super T, ? extends T>> ret = new ArrayList<>();
+		// the slot was reset, so we forget our hooks and start over
+		if(installed == null) {
+			hooks = newArray(0);
+			return ret;
+		}
+		// another tool set its hook behind our back, which is kept after ours
+		ret.addAll(Arrays.asList(hooks));
+		if(!ret.contains(installed))
+			ret.add(installed);
+		return ret;
+	}
+
+	private void update(List<Function<? super T, ? extends T>> hooks) {
+		this.hooks = hooks.toArray(newArray(hooks.size()));
+		setter.accept(hooks.isEmpty() ? null : this);
+	}
+
+	@Override
+	public T apply(T t) throws Throwable {
+		for (Function<? super T, ? extends T> hook : hooks) {
+			t = hook.apply(t);
+		}
+		return t;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Function<? super T, ? extends T>[] newArray(int size) {
+		return new Function[size];
+	}
+}
@@ -0,0 +1,67 @@
+package io.reactiverse.reactivecontexts.propagators.rxjava3;
+
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.parallel.ParallelFlowable;
+
+/**
+ * Reactive Context propagator for RxJava 3. Supports propagating context to all {@link Single},
+ * {@link Observable}, {@link Completable}, {@link Flowable}, {@link Maybe} and {@link ParallelFlowable} types.
+ * The {@link Flowable} and {@link Observable} subscribers preserve operator fusion.
+ * Its hooks are added to the {@link RxJava3HookChains}, so they run alongside the hooks of other tools.
+ */
+public class RxJava3ContextPropagator implements ContextPropagator {
+
+	private final ContextPropagatorOnSingleCreateAction singleCreate = new ContextPropagatorOnSingleCreateAction();
+	private final ContextPropagatorOnCompletableCreateAction completableCreate = new ContextPropagatorOnCompletableCreateAction();
+	private final ContextPropagatorOnFlowableCreateAction flowableCreate = new ContextPropagatorOnFlowableCreateAction();
+	private final ContextPropagatorOnMaybeCreateAction maybeCreate = new ContextPropagatorOnMaybeCreateAction();
+	private final ContextPropagatorOnObservableCreateAction observableCreate = new ContextPropagatorOnObservableCreateAction();
+	private final ContextPropagatorOnParallelCreateAction parallelCreate = new ContextPropagatorOnParallelCreateAction();
+
+	private final ContextPropagatorOnSingleAssemblyAction singleAssembly = new ContextPropagatorOnSingleAssemblyAction();
+	private final ContextPropagatorOnCompletableAssemblyAction completableAssembly = new ContextPropagatorOnCompletableAssemblyAction();
+	private final ContextPropagatorOnFlowableAssemblyAction flowableAssembly = new ContextPropagatorOnFlowableAssemblyAction();
+	private final ContextPropagatorOnMaybeAssemblyAction maybeAssembly = new ContextPropagatorOnMaybeAssemblyAction();
+	private final ContextPropagatorOnObservableAssemblyAction observableAssembly = new ContextPropagatorOnObservableAssemblyAction();
+	private final ContextPropagatorOnParallelAssemblyAction parallelAssembly = new ContextPropagatorOnParallelAssemblyAction();
+
+	public void setup() {
+		// add to the hook chains rather than replacing other tools' hooks
+		RxJava3HookChains.ON_SINGLE_SUBSCRIBE.add(singleCreate);
+		RxJava3HookChains.ON_COMPLETABLE_SUBSCRIBE.add(completableCreate);
+		RxJava3HookChains.ON_FLOWABLE_SUBSCRIBE.add(flowableCreate);
+		RxJava3HookChains.ON_MAYBE_SUBSCRIBE.add(maybeCreate);
+		RxJava3HookChains.ON_OBSERVABLE_SUBSCRIBE.add(observableCreate);
+		RxJava3HookChains.ON_PARALLEL_SUBSCRIBE.add(parallelCreate);
+		
+		RxJava3HookChains.ON_SINGLE_ASSEMBLY.add(singleAssembly);
+		RxJava3HookChains.ON_COMPLETABLE_ASSEMBLY.add(completableAssembly);
+		RxJava3HookChains.ON_FLOWABLE_ASSEMBLY.add(flowableAssembly);
+		RxJava3HookChains.ON_MAYBE_ASSEMBLY.add(maybeAssembly);
+		RxJava3HookChains.ON_OBSERVABLE_ASSEMBLY.add(observableAssembly);
+		RxJava3HookChains.ON_PARALLEL_ASSEMBLY.add(parallelAssembly);
+	}
+
+	public void teardown() {
+		// only remove our own hooks
+		RxJava3HookChains.ON_SINGLE_SUBSCRIBE.remove(singleCreate);
+		RxJava3HookChains.ON_COMPLETABLE_SUBSCRIBE.remove(completableCreate);
+		RxJava3HookChains.ON_FLOWABLE_SUBSCRIBE.remove(flowableCreate);
+		RxJava3HookChains.ON_MAYBE_SUBSCRIBE.remove(maybeCreate);
+		RxJava3HookChains.ON_OBSERVABLE_SUBSCRIBE.remove(observableCreate);
+		RxJava3HookChains.ON_PARALLEL_SUBSCRIBE.remove(parallelCreate);
+
+		RxJava3HookChains.ON_SINGLE_ASSEMBLY.remove(singleAssembly);
+		RxJava3HookChains.ON_COMPLETABLE_ASSEMBLY.remove(completableAssembly);
+		RxJava3HookChains.ON_FLOWABLE_ASSEMBLY.remove(flowableAssembly);
+		RxJava3HookChains.ON_MAYBE_ASSEMBLY.remove(maybeAssembly);
+		RxJava3HookChains.ON_OBSERVABLE_ASSEMBLY.remove(observableAssembly);
+		RxJava3HookChains.ON_PARALLEL_ASSEMBLY.remove(parallelAssembly);
+	}
+
+}
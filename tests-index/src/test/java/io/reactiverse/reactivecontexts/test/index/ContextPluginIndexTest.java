@@ -0,0 +1,82 @@
+package io.reactiverse.reactivecontexts.test.index;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPluginIndex;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import io.reactiverse.reactivecontexts.core.ContextProvider;
+import io.reactiverse.reactivecontexts.core.GenerateContextPluginIndex;
+import io.reactiverse.reactivecontexts.propagators.reactor.ReactorContextPropagator;
+import io.reactiverse.reactivecontexts.propagators.rxjava2.RxJava2ContextPropagator;
+import io.reactiverse.reactivecontexts.test.MyContextProvider;
+import io.reactiverse.reactivecontexts.test.MyTracingContextProvider;
+
+// generates the index for the tests of this module only
+@GenerateContextPluginIndex
+public class ContextPluginIndexTest {
+
+	/**
+	 * Hides the plugins from the ServiceLoader, but not the index.
+	 */
+	private static class NoServicesClassLoader extends ClassLoader {
+		NoServicesClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			return name.startsWith("META-INF/services/") ? Collections.<URL>emptyEnumeration() : super.getResources(name);
+		}
+	}
+
+	@Test
+	public void testIndexMatchesServiceLoader() throws ReflectiveOperationException {
+		ContextPluginIndex index = (ContextPluginIndex) Class.forName(ContextPluginIndex.CLASS_NAME).getConstructor().newInstance();
+
+		Assert.assertEquals(classNames(ServiceLoader.load(ContextProvider.class)), classNames(index.getProviders()));
+		Assert.assertEquals(classNames(ServiceLoader.load(ContextPropagator.class)), classNames(index.getPropagators()));
+		List<String> providers = classNames(index.getProviders());
+		Assert.assertTrue(providers.contains(MyContextProvider.class.getName()));
+		Assert.assertTrue(providers.contains(MyTracingContextProvider.class.getName()));
+		List<String> propagators = classNames(index.getPropagators());
+		Assert.assertTrue(propagators.contains(RxJava2ContextPropagator.class.getName()));
+		Assert.assertTrue(propagators.contains(ReactorContextPropagator.class.getName()));
+
+		// fresh instances each time, like the ServiceLoader
+		Assert.assertNotSame(index.getProviders().get(0), index.getProviders().get(0));
+	}
+
+	@Test
+	public void testContextLoadsIndex() {
+		Thread thread = Thread.currentThread();
+		ClassLoader classLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(new NoServicesClassLoader(classLoader));
+		Context context;
+		try {
+			context = new Context();
+		}finally {
+			thread.setContextClassLoader(classLoader);
+		}
+		// only the index could have listed them
+		Assert.assertNotNull(context.key(MyContextProvider.class));
+		Assert.assertNotNull(context.key(MyTracingContextProvider.class));
+	}
+
+	private List<String> classNames(Iterable<?> plugins) {
+		List<String> ret = new ArrayList<>();
+		for (Object plugin : plugins) {
+			ret.add(plugin.getClass().getName());
+		}
+		return ret;
+	}
+}
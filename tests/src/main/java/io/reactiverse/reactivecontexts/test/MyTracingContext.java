@@ -0,0 +1,36 @@
+package io.reactiverse.reactivecontexts.test;
+
+public class MyTracingContext {
+	private static ThreadLocal<MyTracingContext> context = new ThreadLocal<MyTracingContext>();
+	private static ThreadLocal<int[]> writes = ThreadLocal.withInitial(() -> new int[1]);
+
+	public static MyTracingContext get() {
+		return context.get();
+	}
+	
+	public static void set(MyTracingContext newContext) {
+		writes.get()[0]++;
+		context.set(newContext);
+	}
+
+	public static void clear() {
+		context.remove();
+	}
+
+	/**
+	 * @return the number of times the context was set on the current thread
+	 */
+	public static int getWrites() {
+		return writes.get()[0];
+	}
+
+	private final String traceId;
+
+	public MyTracingContext(String traceId) {
+		this.traceId = traceId;
+	}
+	
+	public String getTraceId() {
+		return traceId;
+	}
+}
@@ -0,0 +1,28 @@
+package io.reactiverse.reactivecontexts.test;
+
+import io.reactiverse.reactivecontexts.core.ContextProvider;
+
+public class MyTracingContextProvider implements ContextProvider<MyTracingContext> {
+
+	@Override
+	public MyTracingContext install(MyTracingContext state) {
+		MyTracingContext old = MyTracingContext.get();
+		MyTracingContext.set(state);
+		return old;
+	}
+
+	@Override
+	public void restore(MyTracingContext previousState) {
+		MyTracingContext.set(previousState);
+	}
+
+	@Override
+	public MyTracingContext capture() {
+		return MyTracingContext.get();
+	}
+
+	@Override
+	public boolean isInstalled(MyTracingContext state) {
+		return MyTracingContext.get() == state;
+	}
+}
@@ -0,0 +1,296 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+
+public class CompletableFutureTest {
+
+	@BeforeClass
+	public static void init() {
+		// initialise
+		Context.load();
+	}
+
+	@After
+	public void after() {
+		MyContext.clear();
+		Context.clearThreadInstance();
+	}
+
+	private void newRequest(String reqId) {
+		MyContext.init();
+		MyContext.get().set(reqId);
+	}
+
+	private static boolean isJava8() {
+		return System.getProperty("java.specification.version").startsWith("1.");
+	}
+
+	private static int javaVersion() {
+		String version = System.getProperty("java.specification.version");
+		// 1.8 for Java 8
+		return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+	}
+
+	@Test
+	public void testDependentStages() throws Throwable {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			newRequest("req 1");
+			CompletableFuture<String> f = Context.wrap(new CompletableFuture<>());
+			CompletableFuture<String> stage = f;
+			for (int i = 0; i < 10; i++) {
+				stage = stage.thenApplyAsync(reqId -> {
+					checkContextCaptured(reqId);
+					return MyContext.get().getReqId();
+				}, executor);
+			}
+			stage = stage.thenCompose(reqId -> CompletableFuture.supplyAsync(() -> reqId, executor))
+					.thenApply(reqId -> reqId + " " + MyContext.get().getReqId());
+			if(!isJava8()) {
+				// stages carry the context themselves rather than wrapping another future
+				Assert.assertSame(stage, Context.wrap(stage));
+			}
+			newRequest("req 2");
+			f.complete("req 1");
+
+			Assert.assertEquals("req 1 req 1", stage.get());
+		}finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testCompletion() throws Throwable {
+		newRequest("req 1");
+		CompletableFuture<String> original = new CompletableFuture<>();
+		CompletableFuture<String> f = Context.wrap(original);
+		f.complete("done");
+		Assert.assertEquals("done", original.get());
+
+		original = new CompletableFuture<>();
+		f = Context.wrap(original);
+		original.complete("done");
+		Assert.assertEquals("done req 1", f.thenApply(value -> value + " " + MyContext.get().getReqId()).get());
+
+		original = new CompletableFuture<>();
+		f = Context.wrap(original);
+		f.cancel(false);
+		Assert.assertTrue(original.isCancelled());
+
+		original = new CompletableFuture<>();
+		f = Context.wrap(original);
+		original.completeExceptionally(new IllegalStateException());
+		try {
+			f.exceptionally(x -> {
+				checkContextCaptured("req 1");
+				throw new IllegalArgumentException(x);
+			}).get();
+			Assert.fail();
+		}catch(ExecutionException x) {
+			Assert.assertTrue(x.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	@Test
+	public void testDefaultExecutor() throws Throwable {
+		newRequest("req 1");
+		CompletableFuture<String> f = Context.wrap(new CompletableFuture<>());
+		CompletableFuture<String> stage = f.thenApplyAsync(value -> value + " " + MyContext.get().getReqId())
+				.thenComposeAsync(value -> CompletableFuture.completedFuture(value + " " + MyContext.get().getReqId()));
+		newRequest("req 2");
+		f.complete("done");
+		Assert.assertEquals("done req 1 req 1", stage.get());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testJava9Methods() throws Throwable {
+		Assume.assumeFalse(isJava8());
+		newRequest("req 1");
+		CompletableFuture<String> original = new CompletableFuture<>();
+		CompletableFuture<String> f = Context.wrap(original);
+		Supplier<String> supplier = () -> MyContext.get().getReqId();
+		invoke(f, "completeAsync", new Class<?>[] { Supplier.class }, supplier);
+		Assert.assertEquals("req 1", f.get());
+		// completes the wrapped future as well
+		Assert.assertEquals("req 1", original.get());
+
+		original = new CompletableFuture<>();
+		f = Context.wrap(original);
+		invoke(f, "orTimeout", new Class<?>[] { long.class, TimeUnit.class }, 1L, TimeUnit.MILLISECONDS);
+		try {
+			original.get();
+			Assert.fail();
+		}catch(ExecutionException x) {
+			Assert.assertTrue(x.getCause() instanceof TimeoutException);
+		}
+
+		f = Context.wrap(new CompletableFuture<>());
+		CompletionStage<String> minimal = (CompletionStage<String>) invoke(f, "minimalCompletionStage", new Class<?>[0]);
+		CompletableFuture<String> stage = minimal.thenApply(value -> value + " " + MyContext.get().getReqId()).toCompletableFuture();
+		newRequest("req 2");
+		f.complete("done");
+		Assert.assertEquals("done req 1", stage.get());
+	}
+
+	@Test
+	public void testJava12Methods() throws Throwable {
+		Assume.assumeTrue(javaVersion() >= 12);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			newRequest("req 1");
+			CompletableFuture<String> failed = Context.wrap(new CompletableFuture<>());
+			List<CompletableFuture<String>> fallbacks = exceptionallyStages(failed, executor);
+			CompletableFuture<String> succeeded = Context.wrap(new CompletableFuture<>());
+			List<CompletableFuture<String>> values = exceptionallyStages(succeeded, executor);
+			newRequest("req 2");
+			failed.completeExceptionally(new IllegalStateException());
+			succeeded.complete("done");
+			for (CompletableFuture<String> fallback : fallbacks) {
+				Assert.assertEquals("req 1", fallback.get());
+			}
+			for (CompletableFuture<String> value : values) {
+				Assert.assertEquals("done", value.get());
+			}
+		}finally {
+			executor.shutdown();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<CompletableFuture<String>> exceptionallyStages(CompletableFuture<String> f, Executor executor) throws Exception {
+		Function<Throwable, String> fn = x -> MyContext.get().getReqId();
+		Function<Throwable, CompletionStage<String>> composeFn = x -> CompletableFuture.completedFuture(MyContext.get().getReqId());
+		List<CompletableFuture<String>> ret = new ArrayList<>();
+		ret.add((CompletableFuture<String>) invoke(f, "exceptionallyAsync", new Class<?>[] { Function.class }, fn));
+		ret.add((CompletableFuture<String>) invoke(f, "exceptionallyAsync", new Class<?>[] { Function.class, Executor.class }, fn, executor));
+		ret.add((CompletableFuture<String>) invoke(f, "exceptionallyCompose", new Class<?>[] { Function.class }, composeFn));
+		ret.add((CompletableFuture<String>) invoke(f, "exceptionallyComposeAsync", new Class<?>[] { Function.class }, composeFn));
+		ret.add((CompletableFuture<String>) invoke(f, "exceptionallyComposeAsync", new Class<?>[] { Function.class, Executor.class },
+				composeFn, executor));
+		return ret;
+	}
+
+	@Test
+	public void testTimeout() throws Throwable {
+		newRequest("req 1");
+		CompletableFuture<String> f = Context.orTimeout(new CompletableFuture<>(), 10, TimeUnit.MILLISECONDS);
+		// not wrapped: runs on the timer thread, with the context of the timeout
+		CompletableFuture<String> fallback = f.exceptionally(x -> x instanceof TimeoutException ? MyContext.get().getReqId() : null);
+		CompletableFuture<Thread> timer = f.handle((value, x) -> Thread.currentThread());
+		CompletableFuture<String> completed = Context.completeOnTimeout(new CompletableFuture<>(), "timeout", 10, TimeUnit.MILLISECONDS)
+				.thenApply(value -> value + " " + MyContext.get().getReqId());
+		CompletableFuture<String> notTimedOut = Context.orTimeout(new CompletableFuture<>(), 1, TimeUnit.MINUTES);
+		newRequest("req 2");
+		notTimedOut.complete("done");
+
+		Assert.assertEquals("req 1", fallback.get());
+		Assert.assertEquals("timeout req 1", completed.get());
+		Assert.assertEquals("done", notTimedOut.get());
+		// the timer thread does not keep our class loader
+		if(timer.get() != Thread.currentThread())
+			Assert.assertNull(timer.get().getContextClassLoader());
+	}
+
+	@Test
+	public void testAsyncFactories() throws Throwable {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			newRequest("req 1");
+			CompletableFuture<String> supplied = Context.supplyAsync(() -> MyContext.get().getReqId(), executor);
+			CompletableFuture<String> suppliedOnDefault = Context.supplyAsync(() -> MyContext.get().getReqId());
+			String[] ran = new String[1];
+			CompletableFuture<Void> run = Context.runAsync(() -> ran[0] = MyContext.get().getReqId(), executor);
+			CompletableFuture<String> failed = Context.supplyAsync(() -> {
+				throw new IllegalStateException();
+			});
+			newRequest("req 2");
+
+			Assert.assertEquals("req 1 req 1", supplied.thenApplyAsync(value -> value + " " + MyContext.get().getReqId(), executor).get());
+			Assert.assertEquals("req 1", suppliedOnDefault.get());
+			run.get();
+			Assert.assertEquals("req 1", ran[0]);
+			Assert.assertEquals("req 1", failed.exceptionally(x -> x.getCause() instanceof IllegalStateException ? MyContext.get().getReqId() : null).get());
+		}finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testAllOf() throws Throwable {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			newRequest("req 1");
+			List<CompletableFuture<Integer>> calls = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				int value = i;
+				// not wrapped, like the futures of a client library
+				calls.add(CompletableFuture.supplyAsync(() -> value, executor));
+			}
+			CompletableFuture<Integer> sum = Context.allOf(calls.toArray(new CompletableFuture<?>[0]))
+					.thenApply(v -> {
+						checkContextCaptured("req 1");
+						return calls.stream().mapToInt(CompletableFuture::join).sum();
+					});
+			Assert.assertNull(Context.allOf().get());
+
+			CompletableFuture<Integer> failing = new CompletableFuture<>();
+			CompletableFuture<Void> failed = Context.allOf(CompletableFuture.completedFuture(1), failing);
+			newRequest("req 2");
+
+			Assert.assertEquals(Integer.valueOf(49 * 50 / 2), sum.get());
+			Assert.assertFalse(failed.isDone());
+			failing.completeExceptionally(new IllegalStateException());
+			try {
+				failed.join();
+				Assert.fail();
+			}catch(CompletionException x) {
+				Assert.assertTrue(x.getCause() instanceof IllegalStateException);
+			}
+		}finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testAnyOf() throws Throwable {
+		newRequest("req 1");
+		CompletableFuture<String> first = new CompletableFuture<>();
+		CompletableFuture<String> second = new CompletableFuture<>();
+		CompletableFuture<Object> any = Context.anyOf(first, second)
+				.thenApply(value -> value + " " + MyContext.get().getReqId());
+		newRequest("req 2");
+		second.complete("second");
+		first.complete("first");
+		Assert.assertEquals("second req 1", any.get());
+	}
+
+	// not available on Java 8
+	private static Object invoke(Object target, String method, Class<?>[] parameterTypes, Object... args) throws ReflectiveOperationException {
+		return CompletableFuture.class.getMethod(method, parameterTypes).invoke(target, args);
+	}
+
+	private void checkContextCaptured(String reqId) {
+		Assert.assertEquals(reqId, MyContext.get().getReqId());
+	}
+}
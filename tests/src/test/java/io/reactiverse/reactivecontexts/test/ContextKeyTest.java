@@ -0,0 +1,87 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextKey;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import io.reactiverse.reactivecontexts.core.ContextProvider;
+import io.reactiverse.reactivecontexts.core.ContextState;
+
+public class ContextKeyTest {
+
+	@After
+	public void after() {
+		MyContext.clear();
+		MyTracingContext.clear();
+	}
+
+	@Test
+	public void testGet() {
+		Context context = Context.getInstance();
+		ContextKey<MyContext> key = context.key(MyContextProvider.class);
+		ContextKey<MyTracingContext> tracingKey = context.key(MyTracingContextProvider.class);
+
+		MyContext.init();
+		MyContext myContext = MyContext.get();
+		MyTracingContext tracingContext = new MyTracingContext("trace");
+		MyTracingContext.set(tracingContext);
+		Assert.assertSame(myContext, context.current(key));
+		Assert.assertSame(tracingContext, context.current(tracingKey));
+
+		ContextState state = Context.capture();
+		MyContext.clear();
+		MyTracingContext.clear();
+		int writes = MyTracingContext.getWrites();
+		Assert.assertNull(context.current(key));
+		Assert.assertSame(myContext, state.get(key));
+		Assert.assertSame(tracingContext, state.get(tracingKey));
+		// reading does not install anything
+		Assert.assertNull(MyContext.get());
+		Assert.assertNull(MyTracingContext.get());
+		Assert.assertEquals(writes, MyTracingContext.getWrites());
+	}
+
+	@Test
+	public void testRegistryChanges() {
+		Context context = new Context(Collections.<ContextProvider<?>>emptyList(), Collections.<ContextPropagator>emptyList());
+		MyContextProvider provider = new MyContextProvider();
+		MyTracingContextProvider tracingProvider = new MyTracingContextProvider();
+		context.register(provider);
+		ContextKey<MyContext> key = context.key(provider);
+
+		MyContext.init();
+		ContextState state = context.captureState();
+		context.register(tracingProvider);
+		ContextKey<MyTracingContext> tracingKey = context.key(tracingProvider);
+		// not registered when captured
+		Assert.assertNull(state.get(tracingKey));
+
+		context.unregister(provider);
+		// stale key
+		Assert.assertNull(context.captureState().get(key));
+		// takes its slot back
+		context.register(provider);
+		ContextState newState = context.captureState();
+		Assert.assertSame(MyContext.get(), newState.get(key));
+		Assert.assertSame(MyContext.get(), newState.get(context.key(provider)));
+		Assert.assertSame(MyContext.get(), state.get(key));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnregisteredKey() {
+		Context context = new Context(Arrays.asList(new MyContextProvider()), Collections.<ContextPropagator>emptyList());
+		context.key(MyTracingContextProvider.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testKeyFromOtherContext() {
+		Context context = new Context(Arrays.asList(new MyContextProvider()), Collections.<ContextPropagator>emptyList());
+		Context.capture().get(context.key(MyContextProvider.class));
+	}
+}
@@ -0,0 +1,106 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPluginIndex;
+import io.reactiverse.reactivecontexts.processor.ContextPluginIndexProcessor;
+import io.reactiverse.reactivecontexts.propagators.rxjava2.RxJava2ContextPropagator;
+
+public class ContextPluginIndexProcessorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File javac;
+	private String output;
+	private Path generated;
+
+	@Before
+	public void before() {
+		// a separate compiler process, since the in-process compiler loads processors from our own class loader
+		File javaHome = new File(System.getProperty("java.home"));
+		javac = new File(javaHome, "bin/javac");
+		if(!javac.exists())
+			javac = new File(javaHome.getParentFile(), "bin/javac");
+		Assume.assumeTrue(javac.exists());
+	}
+
+	@Test
+	public void testProcessorPathDiffersFromClasspath() throws Exception {
+		// the processor path does not have the plugins, and the classpath does not have the processor
+		List<String> classpath = Arrays.asList(location(Context.class), location(MyContextProvider.class), location(RxJava2ContextPropagator.class));
+		String processorPath = location(ContextPluginIndexProcessor.class)+File.pathSeparator+location(Context.class);
+
+		Assert.assertNotEquals(0, compile(classpath, "-processorpath", processorPath));
+		Assert.assertTrue(output, output.contains("-A"+ContextPluginIndexProcessor.CLASSPATH_OPTION));
+
+		Assert.assertEquals(output, 0, compile(classpath, "-processorpath", processorPath,
+				"-A"+ContextPluginIndexProcessor.CLASSPATH_OPTION+"="+String.join(File.pathSeparator, classpath)));
+		checkIndex();
+	}
+
+	@Test
+	public void testProcessorOnClasspath() throws Exception {
+		List<String> classpath = Arrays.asList(location(ContextPluginIndexProcessor.class), location(Context.class),
+				location(MyContextProvider.class), location(RxJava2ContextPropagator.class));
+
+		Assert.assertEquals(output, 0, compile(classpath));
+		checkIndex();
+	}
+
+	private void checkIndex() throws IOException {
+		Path file = generated.resolve(ContextPluginIndex.CLASS_NAME.replace('.', File.separatorChar)+".java");
+		String index = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Assert.assertTrue(index.contains("new "+MyContextProvider.class.getName()+"()"));
+		Assert.assertTrue(index.contains("new "+MyTracingContextProvider.class.getName()+"()"));
+		Assert.assertTrue(index.contains("new "+RxJava2ContextPropagator.class.getName()+"()"));
+	}
+
+	private int compile(List<String> classpath, String... options) throws IOException, InterruptedException {
+		Path sources = folder.newFolder().toPath();
+		generated = folder.newFolder().toPath();
+		Path source = sources.resolve("Index.java");
+		Files.write(source, "@io.reactiverse.reactivecontexts.core.GenerateContextPluginIndex class Index {}".getBytes(StandardCharsets.UTF_8));
+
+		List<String> command = new ArrayList<>(Arrays.asList(
+				javac.getPath(),
+				"-proc:only",
+				"-s", generated.toString(),
+				"-classpath", String.join(File.pathSeparator, classpath),
+				"-processor", ContextPluginIndexProcessor.class.getName()));
+		command.addAll(Arrays.asList(options));
+		command.add(source.toString());
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		try(InputStream is = process.getInputStream()){
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while((read = is.read(buffer)) != -1)
+				bytes.write(buffer, 0, read);
+			output = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		}
+		return process.waitFor();
+	}
+
+	private static String location(Class<?> type) throws URISyntaxException {
+		return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+	}
+}
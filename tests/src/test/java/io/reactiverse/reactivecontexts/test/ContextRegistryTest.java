@@ -0,0 +1,174 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextKey;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+import io.reactiverse.reactivecontexts.core.ContextProvider;
+import io.reactiverse.reactivecontexts.core.ContextState;
+
+public class ContextRegistryTest {
+
+	@After
+	public void after() {
+		MyContext.clear();
+		MyTracingContext.clear();
+	}
+
+	private Context newContext() {
+		return new Context(Collections.<ContextProvider<?>>emptyList(), Collections.<ContextPropagator>emptyList());
+	}
+
+	@Test
+	public void testRegisterProvider() {
+		Context context = newContext();
+		MyContextProvider provider = new MyContextProvider();
+		MyTracingContextProvider tracingProvider = new MyTracingContextProvider();
+		context.register(provider);
+
+		MyContext.init();
+		MyContext myContext = MyContext.get();
+		MyTracingContext.set(new MyTracingContext("trace"));
+		ContextState state = context.captureState();
+
+		context.register(tracingProvider);
+		ContextState tracedState = context.captureState();
+		MyContext.clear();
+		MyTracingContext tracingContext = new MyTracingContext("other trace");
+		MyTracingContext.set(tracingContext);
+
+		// new providers are left untouched by older states
+		ContextState previousState = context.install(state);
+		Assert.assertSame(myContext, MyContext.get());
+		Assert.assertSame(tracingContext, MyTracingContext.get());
+		context.restore(previousState);
+		Assert.assertNull(MyContext.get());
+
+		context.enter(tracedState);
+		Assert.assertSame(myContext, MyContext.get());
+		Assert.assertEquals("trace", MyTracingContext.get().getTraceId());
+		context.exit(tracedState);
+		Assert.assertNull(MyContext.get());
+		Assert.assertSame(tracingContext, MyTracingContext.get());
+	}
+
+	@Test
+	public void testUnregisterProvider() {
+		Context context = newContext();
+		MyContextProvider provider = new MyContextProvider();
+		MyTracingContextProvider tracingProvider = new MyTracingContextProvider();
+		context.register(provider);
+		context.register(tracingProvider);
+
+		MyContext.init();
+		MyContext myContext = MyContext.get();
+		MyTracingContext.set(new MyTracingContext("trace"));
+		ContextState state = context.captureState();
+		MyContext.clear();
+		MyTracingContext.clear();
+
+		ContextState previousState = context.install(state);
+		Assert.assertTrue(context.unregister(tracingProvider));
+		Assert.assertFalse(context.unregister(tracingProvider));
+		// states installed while registered are still restored
+		context.restore(previousState);
+		Assert.assertNull(MyContext.get());
+		Assert.assertNull(MyTracingContext.get());
+
+		// missing providers are skipped by older states
+		context.enter(state);
+		Assert.assertSame(myContext, MyContext.get());
+		Assert.assertNull(MyTracingContext.get());
+		context.exit(state);
+		Assert.assertNull(MyContext.get());
+
+		// can be registered again
+		context.register(tracingProvider);
+		MyTracingContext.set(new MyTracingContext("trace"));
+		Assert.assertNotSame(state, context.captureState());
+	}
+
+	@Test
+	public void testProviderSlotsReused() throws Exception {
+		Context context = newContext();
+		context.register(new MyContextProvider());
+		for (int i = 0; i < 100; i++) {
+			MyTracingContextProvider tracingProvider = new MyTracingContextProvider();
+			context.register(tracingProvider);
+			Assert.assertTrue(context.unregister(tracingProvider));
+		}
+		// the providers do not grow with every registration
+		Field providers = Context.class.getDeclaredField("providers");
+		providers.setAccessible(true);
+		Assert.assertEquals(2, ((Object[]) providers.get(context)).length);
+	}
+
+	@Test
+	public void testReusedSlotSkippedByOlderStates() {
+		Context context = newContext();
+		MyTracingContextProvider tracingProvider = new MyTracingContextProvider();
+		context.register(tracingProvider);
+		MyTracingContext.set(new MyTracingContext("trace"));
+		ContextState state = context.captureState();
+		MyTracingContext.clear();
+
+		// takes the slot of the unregistered provider
+		context.unregister(tracingProvider);
+		context.register(new MyTracingContextProvider());
+		ContextKey<MyTracingContext> key = context.key(MyTracingContextProvider.class);
+		Assert.assertNull(state.get(key));
+		context.enter(state);
+		try {
+			Assert.assertNull(MyTracingContext.get());
+		}finally {
+			context.exit(state);
+		}
+		ContextState previousState = context.install(state);
+		Assert.assertNull(MyTracingContext.get());
+		context.restore(previousState);
+		state.enter(context.mask(key));
+		try {
+			Assert.assertNull(MyTracingContext.get());
+		}finally {
+			state.exit();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRegisterProviderTwice() {
+		Context context = newContext();
+		MyContextProvider provider = new MyContextProvider();
+		context.register(provider);
+		context.register(provider);
+	}
+
+	@Test
+	public void testRegisterPropagator() {
+		Context context = newContext();
+		int[] calls = new int[2];
+		ContextPropagator propagator = new ContextPropagator() {
+			@Override
+			public void setup() {
+				calls[0]++;
+			}
+
+			@Override
+			public void teardown() {
+				calls[1]++;
+			}
+		};
+		context.register(propagator);
+		Assert.assertEquals(1, calls[0]);
+		Assert.assertEquals(0, calls[1]);
+		Assert.assertTrue(context.unregister(propagator));
+		Assert.assertFalse(context.unregister(propagator));
+		Assert.assertEquals(1, calls[0]);
+		Assert.assertEquals(1, calls[1]);
+	}
+}
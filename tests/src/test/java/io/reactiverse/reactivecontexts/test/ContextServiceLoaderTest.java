@@ -0,0 +1,65 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPluginIndex;
+
+// the index is generated by the reactive-contexts-test-index module, so this module has none
+public class ContextServiceLoaderTest {
+
+	/**
+	 * Hides the plugins from the ServiceLoader.
+	 */
+	private static class NoServicesClassLoader extends ClassLoader {
+		NoServicesClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			return name.startsWith("META-INF/services/") ? Collections.<URL>emptyEnumeration() : super.getResources(name);
+		}
+	}
+
+	@BeforeClass
+	public static void init() {
+		// initialise
+		Context.load();
+	}
+
+	@Test(expected = ClassNotFoundException.class)
+	public void testNoIndex() throws ClassNotFoundException {
+		Class.forName(ContextPluginIndex.CLASS_NAME);
+	}
+
+	@Test
+	public void testContextLoadsServices() {
+		Context context = Context.getInstance();
+		Assert.assertNotNull(context.key(MyContextProvider.class));
+		Assert.assertNotNull(context.key(MyTracingContextProvider.class));
+
+		Thread thread = Thread.currentThread();
+		ClassLoader classLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(new NoServicesClassLoader(classLoader));
+		try {
+			context = new Context();
+		}finally {
+			thread.setContextClassLoader(classLoader);
+		}
+		// only the ServiceLoader could have listed them
+		try {
+			context.key(MyContextProvider.class);
+			Assert.fail();
+		}catch(IllegalArgumentException x) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,359 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextMask;
+import io.reactiverse.reactivecontexts.core.ContextState;
+
+public class ContextStateTest {
+
+	@BeforeClass
+	public static void init() {
+		// initialise
+		Context.load();
+	}
+
+	@After
+	public void after() {
+		MyContext.clear();
+		MyTracingContext.clear();
+	}
+
+	private ContextState captureRequest(String reqId) {
+		MyContext.init();
+		MyContext.get().set(reqId);
+		return Context.capture();
+	}
+
+	@Test
+	public void testEnterExit() {
+		ContextState req1 = captureRequest("req 1");
+		ContextState req2 = captureRequest("req 2");
+		MyContext.clear();
+
+		req1.enter();
+		try {
+			checkContextCaptured("req 1");
+			req2.enter();
+			try {
+				checkContextCaptured("req 2");
+			}finally {
+				req2.exit();
+			}
+			checkContextCaptured("req 1");
+		}finally {
+			req1.exit();
+		}
+		Assert.assertNull(MyContext.get());
+	}
+
+	@Test
+	public void testEnterExitDeepNesting() {
+		int depth = 100;
+		ContextState[] states = new ContextState[depth];
+		for (int i = 0; i < depth; i++) {
+			states[i] = captureRequest("req " + i);
+		}
+		MyContext.clear();
+
+		for (int i = 0; i < depth; i++) {
+			states[i].enter();
+			checkContextCaptured("req " + i);
+		}
+		for (int i = depth - 1; i >= 0; i--) {
+			checkContextCaptured("req " + i);
+			states[i].exit();
+		}
+		Assert.assertNull(MyContext.get());
+	}
+
+	@Test
+	public void testEnterInstallMix() {
+		ContextState req1 = captureRequest("req 1");
+		ContextState req2 = captureRequest("req 2");
+		MyContext.clear();
+
+		req1.enter();
+		try {
+			ContextState previousState = req2.install();
+			try {
+				checkContextCaptured("req 2");
+			}finally {
+				previousState.restore();
+			}
+			checkContextCaptured("req 1");
+		}finally {
+			req1.exit();
+		}
+		Assert.assertNull(MyContext.get());
+	}
+
+	@Test
+	public void testReentrantEnter() {
+		ContextState req1 = captureRequest("req 1");
+		MyContext.clear();
+		long reentrantInstalls = Context.getInstance().getReentrantInstallCount();
+
+		req1.enter();
+		try {
+			req1.enter();
+			try {
+				checkContextCaptured("req 1");
+			}finally {
+				req1.exit();
+			}
+			checkContextCaptured("req 1");
+			ContextState previousState = req1.install();
+			try {
+				checkContextCaptured("req 1");
+			}finally {
+				previousState.restore();
+			}
+			checkContextCaptured("req 1");
+		}finally {
+			req1.exit();
+		}
+		Assert.assertNull(MyContext.get());
+		Assert.assertEquals(reentrantInstalls + 2, Context.getInstance().getReentrantInstallCount());
+	}
+
+	@Test
+	public void testReentrantInstall() {
+		ContextState req1 = captureRequest("req 1");
+		ContextState req2 = captureRequest("req 2");
+		MyContext.clear();
+		long reentrantInstalls = Context.getInstance().getReentrantInstallCount();
+
+		ContextState previousState = req1.install();
+		try {
+			req2.enter();
+			try {
+				// not the current state anymore
+				ContextState previousState2 = req1.install();
+				try {
+					checkContextCaptured("req 1");
+				}finally {
+					previousState2.restore();
+				}
+				checkContextCaptured("req 2");
+			}finally {
+				req2.exit();
+			}
+			req1.enter();
+			try {
+				checkContextCaptured("req 1");
+			}finally {
+				req1.exit();
+			}
+		}finally {
+			previousState.restore();
+		}
+		Assert.assertNull(MyContext.get());
+		Assert.assertEquals(reentrantInstalls + 1, Context.getInstance().getReentrantInstallCount());
+	}
+
+	@Test
+	public void testUnchangedProviderNotInstalled() {
+		MyTracingContext trace = new MyTracingContext("trace");
+		MyTracingContext.set(trace);
+		ContextState req1 = captureRequest("req 1");
+		ContextState req2 = captureRequest("req 2");
+		MyContext.clear();
+		int writes = MyTracingContext.getWrites();
+
+		req1.enter();
+		try {
+			ContextState previousState = req2.install();
+			try {
+				checkContextCaptured("req 2");
+			}finally {
+				previousState.restore();
+			}
+			checkContextCaptured("req 1");
+			Assert.assertSame(trace, MyTracingContext.get());
+		}finally {
+			req1.exit();
+		}
+		Assert.assertNull(MyContext.get());
+		Assert.assertSame(trace, MyTracingContext.get());
+		Assert.assertEquals(writes, MyTracingContext.getWrites());
+
+		// now it differs
+		MyTracingContext.clear();
+		req1.enter();
+		try {
+			Assert.assertSame(trace, MyTracingContext.get());
+		}finally {
+			req1.exit();
+		}
+		Assert.assertNull(MyTracingContext.get());
+		Assert.assertEquals(writes + 2, MyTracingContext.getWrites());
+	}
+
+	@Test
+	public void testCaptureInstalled() {
+		ContextState req1 = captureRequest("req 1");
+		ContextState req2 = captureRequest("req 2");
+		Assert.assertSame(req2, Context.capture());
+
+		req1.enter();
+		try {
+			Assert.assertSame(req1, Context.capture());
+			req2.enter();
+			try {
+				Assert.assertSame(req2, Context.capture());
+			}finally {
+				req2.exit();
+			}
+			// direct modifications are seen by captures
+			MyContext.init();
+			Assert.assertNotSame(req1, Context.capture());
+		}finally {
+			req1.exit();
+		}
+	}
+
+	@Test
+	public void testCaptureInterning() {
+		ContextState req1 = captureRequest("req 1");
+		Assert.assertSame(req1, Context.capture());
+		MyContext.get().set("req 1 bis");
+		// the context object did not change
+		Assert.assertSame(req1, Context.capture());
+
+		MyTracingContext.set(new MyTracingContext("trace"));
+		ContextState traced = Context.capture();
+		Assert.assertNotSame(req1, traced);
+		Assert.assertSame(traced, Context.capture());
+
+		ContextState req2 = captureRequest("req 2");
+		Assert.assertNotSame(traced, req2);
+		Assert.assertSame(req2, Context.capture());
+
+		req1.enter();
+		try {
+			// the installed state is reused
+			Assert.assertSame(req1, Context.capture());
+		}finally {
+			req1.exit();
+		}
+		// the last captured state is released by the outermost exit
+		ContextState afterExit = Context.capture();
+		Assert.assertNotSame(req2, afterExit);
+		Assert.assertSame(afterExit, Context.capture());
+	}
+
+	@Test
+	public void testCaptureInterningReleasedOnExit() throws InterruptedException {
+		ContextState req1 = captureRequest("req 1");
+		MyContext.clear();
+		WeakReference<MyContext> inner;
+		req1.enter();
+		try {
+			// captured while the state is installed, with a modified context
+			MyContext.init();
+			inner = new WeakReference<>(MyContext.get());
+			Assert.assertNotSame(req1, Context.capture());
+		}finally {
+			req1.exit();
+		}
+		Assert.assertNull(MyContext.get());
+		// the thread does not keep the last captured state after the outermost exit
+		for (int i = 0; i < 10 && inner.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assert.assertNull(inner.get());
+	}
+
+	@Test
+	public void testMaskedInstall() {
+		Context context = Context.getInstance();
+		MyTracingContext.set(new MyTracingContext("trace"));
+		ContextState state = captureRequest("req 1");
+		MyContext.clear();
+		MyTracingContext.clear();
+
+		ContextState previousState = state.install(context.key(MyContextProvider.class));
+		try {
+			checkContextCaptured("req 1");
+			Assert.assertNull(MyTracingContext.get());
+			// partially installed states are not reused
+			Assert.assertNotSame(state, Context.capture());
+		}finally {
+			previousState.restore();
+		}
+		Assert.assertNull(MyContext.get());
+
+		ContextMask mask = context.mask(context.key(MyTracingContextProvider.class));
+		state.enter(mask);
+		try {
+			Assert.assertNull(MyContext.get());
+			Assert.assertEquals("trace", MyTracingContext.get().getTraceId());
+		}finally {
+			state.exit();
+		}
+		Assert.assertNull(MyTracingContext.get());
+	}
+
+	@Test
+	public void testThreadMask() {
+		Context context = Context.getInstance();
+		MyTracingContext.set(new MyTracingContext("trace"));
+		ContextState state = captureRequest("req 1");
+		MyContext.clear();
+		MyTracingContext.clear();
+
+		ContextMask mask = context.mask(context.key(MyContextProvider.class));
+		Assert.assertNull(Context.setThreadMask(mask));
+		try {
+			state.enter();
+			try {
+				checkContextCaptured("req 1");
+				Assert.assertNull(MyTracingContext.get());
+			}finally {
+				state.exit();
+			}
+		}finally {
+			Assert.assertSame(mask, Context.setThreadMask(null));
+		}
+		state.enter();
+		try {
+			Assert.assertEquals("trace", MyTracingContext.get().getTraceId());
+		}finally {
+			state.exit();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExitWithoutEnter() {
+		captureRequest("req 1").exit();
+	}
+
+	@Test
+	public void testExitOutOfOrder() {
+		ContextState req1 = captureRequest("req 1");
+		ContextState req2 = captureRequest("req 2");
+
+		req1.enter();
+		req2.enter();
+		try {
+			req1.exit();
+			Assert.fail("Should have thrown");
+		}catch(IllegalStateException x) {
+			// expected
+		}
+		req2.exit();
+		req1.exit();
+	}
+
+	private void checkContextCaptured(String reqId) {
+		Assert.assertEquals(reqId, MyContext.get().getReqId());
+	}
+}
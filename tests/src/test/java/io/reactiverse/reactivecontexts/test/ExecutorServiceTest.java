@@ -0,0 +1,140 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+
+public class ExecutorServiceTest {
+
+	@BeforeClass
+	public static void init() {
+		// initialise
+		Context.load();
+	}
+
+	@After
+	public void after() {
+		MyContext.clear();
+		Context.clearThreadInstance();
+	}
+
+	private void newRequest(String reqId) {
+		MyContext.init();
+		MyContext.get().set(reqId);
+	}
+
+	@Test
+	public void testSubmit() throws Throwable {
+		ExecutorService executor = Context.wrap(Executors.newFixedThreadPool(2));
+		try {
+			newRequest("req 1");
+			Future<String> task1 = executor.submit(() -> MyContext.get().getReqId());
+			Future<?> task2 = executor.submit(() -> checkContextCaptured("req 1"));
+			newRequest("req 2");
+			Future<String> task3 = executor.submit(() -> checkContextCaptured("req 2"), "done");
+			CountDownLatch latch = new CountDownLatch(1);
+			executor.execute(() -> {
+				checkContextCaptured("req 2");
+				latch.countDown();
+			});
+
+			Assert.assertEquals("req 1", task1.get());
+			task2.get();
+			Assert.assertEquals("done", task3.get());
+			Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+		}finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testInvokeAll() throws Throwable {
+		ExecutorService executor = Context.wrap(Executors.newFixedThreadPool(2));
+		try {
+			newRequest("req 1");
+			List<Callable<String>> tasks = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				tasks.add(() -> MyContext.get().getReqId());
+			}
+			for (Future<String> future : executor.invokeAll(tasks)) {
+				Assert.assertEquals("req 1", future.get());
+			}
+			Assert.assertEquals("req 1", executor.invokeAny(tasks));
+		}finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testInvokeAllCapturesOnce() throws Throwable {
+		AtomicInteger captures = new AtomicInteger();
+		Context.setThreadInstance(new Context(Arrays.asList(new MyContextProvider() {
+			@Override
+			public MyContext capture() {
+				captures.incrementAndGet();
+				return super.capture();
+			}
+		}), Collections.<ContextPropagator>emptyList()));
+		newRequest("req 1");
+		List<Callable<String>> tasks = Collections.nCopies(4, () -> MyContext.get().getReqId());
+
+		ExecutorService executor = Context.wrap(Executors.newFixedThreadPool(2));
+		try {
+			for (Future<String> future : executor.invokeAll(tasks)) {
+				Assert.assertEquals("req 1", future.get());
+			}
+			Assert.assertEquals(1, captures.getAndSet(0));
+			Assert.assertEquals("req 1", executor.invokeAny(tasks));
+			Assert.assertEquals(1, captures.get());
+		}finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testSchedule() throws Throwable {
+		ScheduledExecutorService executor = Context.wrap(Executors.newScheduledThreadPool(1));
+		try {
+			newRequest("req 1");
+			ScheduledFuture<String> task1 = executor.schedule(() -> MyContext.get().getReqId(), 1, TimeUnit.MILLISECONDS);
+			CountDownLatch latch = new CountDownLatch(3);
+			ScheduledFuture<?> task2 = executor.scheduleAtFixedRate(() -> {
+				checkContextCaptured("req 1");
+				latch.countDown();
+			}, 0, 1, TimeUnit.MILLISECONDS);
+			newRequest("req 2");
+			ScheduledFuture<?> task3 = executor.schedule(() -> checkContextCaptured("req 2"), 1, TimeUnit.MILLISECONDS);
+
+			Assert.assertEquals("req 1", task1.get());
+			task3.get();
+			Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+			// a failed check would have cancelled the periodic task
+			Assert.assertFalse(task2.isDone());
+			task2.cancel(false);
+		}finally {
+			executor.shutdown();
+		}
+	}
+
+	private void checkContextCaptured(String reqId) {
+		Assert.assertEquals(reqId, MyContext.get().getReqId());
+	}
+}
@@ -0,0 +1,109 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.core.ContextPropagator;
+
+public class ForkJoinTest {
+
+	@BeforeClass
+	public static void init() {
+		// initialise
+		Context.load();
+	}
+
+	@After
+	public void after() {
+		MyContext.clear();
+		Context.clearThreadInstance();
+	}
+
+	private void newRequest(String reqId) {
+		MyContext.init();
+		MyContext.get().set(reqId);
+	}
+
+	@Test
+	public void testParallelStream() {
+		AtomicInteger installs = new AtomicInteger();
+		Context.setThreadInstance(new Context(Arrays.asList(new MyContextProvider() {
+			@Override
+			public MyContext install(MyContext state) {
+				installs.incrementAndGet();
+				return super.install(state);
+			}
+		}), Collections.<ContextPropagator>emptyList()));
+		newRequest("req 1");
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+
+		List<String> reqIds = Context.parallel(IntStream.range(0, 10000).boxed())
+		.map(value -> {
+			threads.add(Thread.currentThread().getName());
+			return MyContext.get() != null ? MyContext.get().getReqId() : null;
+		})
+		.distinct()
+		.collect(Collectors.toList());
+
+		Assert.assertEquals(Arrays.asList("req 1"), reqIds);
+		if(threads.size() > 1)
+			Assert.assertTrue(installs.get() > 0);
+		// installed once per split, not once per element
+		Assert.assertTrue(installs.get() < 1000);
+		checkContextCaptured("req 1");
+	}
+
+	@Test
+	public void testShortCircuit() {
+		newRequest("req 1");
+		Assert.assertTrue(Context.parallel(IntStream.range(0, 10000).boxed())
+				.filter(value -> value == 9999)
+				.allMatch(value -> "req 1".equals(MyContext.get().getReqId())));
+	}
+
+	@Test
+	public void testForkJoinPool() throws Throwable {
+		ForkJoinPool pool = Context.newForkJoinPool(2);
+		try {
+			newRequest("req 1");
+			Assert.assertEquals("req 1", pool.submit(() -> MyContext.get().getReqId()).get());
+			Assert.assertEquals("req 1", pool.invoke(new RecursiveTask<String>() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected String compute() {
+					return MyContext.get().getReqId();
+				}
+			}));
+			// parallel streams run in the pool of the task which starts them
+			Assert.assertEquals(Arrays.asList("req 1"), pool.submit(() -> Context.parallel(IntStream.range(0, 1000).boxed())
+					.map(value -> MyContext.get().getReqId())
+					.distinct()
+					.collect(Collectors.toList())).get());
+			newRequest("req 2");
+			Callable<String> task = () -> MyContext.get().getReqId();
+			Assert.assertEquals("req 2", pool.invokeAll(Arrays.asList(task)).get(0).get());
+		}finally {
+			pool.shutdown();
+		}
+	}
+
+	private void checkContextCaptured(String reqId) {
+		Assert.assertEquals(reqId, MyContext.get().getReqId());
+	}
+}
@@ -0,0 +1,188 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+public class ReactorTest {
+
+	@BeforeClass
+	public static void init() {
+		// initialise
+		Context.load();
+	}
+	
+	@Before
+	public void before() {
+		MyContext.init();
+		MyContext.get().set("test");
+	}
+	
+	@After
+	public void after() {
+		MyContext.clear();
+	}
+
+	@Test
+	public void testMono() {
+		String value = Mono.create(sink -> {
+			// check deferred state
+			checkContextCaptured();
+			sink.success("YES");
+		})
+		.subscribeOn(Schedulers.boundedElastic())
+		.map(v -> {
+			checkContextCaptured();
+			return v + "!";
+		})
+		.publishOn(Schedulers.parallel())
+		.doOnNext(v -> checkContextCaptured())
+		.block();
+		Assert.assertEquals("YES!", value);
+	}
+
+	@Test
+	public void testFlux() {
+		List<Integer> values = Flux.range(0, 3)
+		.publishOn(Schedulers.parallel())
+		.map(v -> {
+			checkContextCaptured();
+			return v + 1;
+		})
+		.delayElements(Duration.ofMillis(1))
+		.filter(v -> {
+			checkContextCaptured();
+			return true;
+		})
+		.collectList()
+		.block();
+		Assert.assertEquals(Arrays.asList(1, 2, 3), values);
+	}
+
+	@Test
+	public void testFusion() {
+		// the iterator only runs when polled
+		Iterable<Integer> iterable = () -> new Iterator<Integer>() {
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				checkContextCaptured();
+				return next < 3;
+			}
+
+			@Override
+			public Integer next() {
+				checkContextCaptured();
+				return next++;
+			}
+		};
+		// publishOn and concatMapIterable fuse with their upstream when they can, and poll it instead of receiving its signals
+		List<Integer> values = Flux.fromIterable(iterable)
+		.map(v -> {
+			checkContextCaptured();
+			return v + 1;
+		})
+		.filter(v -> {
+			checkContextCaptured();
+			return v > 1;
+		})
+		.publishOn(Schedulers.parallel())
+		.concatMapIterable(v -> {
+			checkContextCaptured();
+			return Arrays.asList(v, v);
+		})
+		.collectList()
+		.block();
+		Assert.assertEquals(Arrays.asList(2, 2, 3, 3), values);
+
+		// publishOn polls the iterator on its own thread
+		values = Flux.fromIterable(iterable)
+		.publishOn(Schedulers.parallel())
+		.collectList()
+		.block();
+		Assert.assertEquals(Arrays.asList(0, 1, 2), values);
+	}
+
+	@Test
+	public void testOperatorsAssembledInOtherContext() {
+		Flux<Integer> flux = Flux.range(0, 3)
+		.publishOn(Schedulers.parallel())
+		.map(v -> {
+			checkContextCaptured();
+			return v;
+		});
+		MyContext.init();
+		MyContext.get().set("other");
+		// like with RxJava, operators are called in the context their upstream was assembled in
+		List<Integer> values = flux
+		.map(v -> {
+			checkContextCaptured();
+			return v;
+		})
+		.map(v -> {
+			Assert.assertEquals("other", MyContext.get().getReqId());
+			return v;
+		})
+		.collectList()
+		.block();
+		Assert.assertEquals(Arrays.asList(0, 1, 2), values);
+	}
+
+	@Test
+	public void testParallelFlux() {
+		List<Integer> values = Flux.range(0, 10)
+		.parallel(2)
+		.runOn(Schedulers.parallel())
+		.map(v -> {
+			checkContextCaptured();
+			return v;
+		})
+		.sequential()
+		.sort()
+		.collectList()
+		.block();
+		Assert.assertEquals(10, values.size());
+	}
+
+	@Test
+	public void testConnectableFlux() {
+		List<Integer> values = Flux.range(0, 3)
+		.publishOn(Schedulers.parallel())
+		.publish()
+		.autoConnect()
+		.map(v -> {
+			checkContextCaptured();
+			return v;
+		})
+		.collectList()
+		.block();
+		Assert.assertEquals(Arrays.asList(0, 1, 2), values);
+	}
+
+	@Test
+	public void testReactorContext() {
+		// the reactor context still flows upstream through our subscribers
+		String value = Mono.deferContextual(context -> Mono.just(context.<String>get("key")))
+		.map(v -> v + "!")
+		.contextWrite(reactor.util.context.Context.of("key", "value"))
+		.block();
+		Assert.assertEquals("value!", value);
+	}
+
+	private void checkContextCaptured() {
+		Assert.assertEquals("test", MyContext.get().getReqId());
+	}
+}
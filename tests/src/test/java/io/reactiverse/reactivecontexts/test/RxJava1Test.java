@@ -1,6 +1,9 @@
 package io.reactiverse.reactivecontexts.test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -9,11 +12,16 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.propagators.rxjava1.RxJava1ContextPropagator;
+import io.reactiverse.reactivecontexts.propagators.rxjava1.RxJava1HookChains;
 import io.reactiverse.reactivecontexts.test.MyContext;
 import rx.Completable;
 import rx.Emitter.BackpressureMode;
 import rx.Observable;
 import rx.Single;
+import rx.Subscriber;
+import rx.functions.Func1;
+import rx.plugins.RxJavaHooks;
 import rx.schedulers.Schedulers;
 
 public class RxJava1Test {
@@ -114,6 +122,148 @@ public class RxJava1Test {
 			throw ret[0];
 	}
 
+	@Test
+	public void testLift() {
+		List<Integer> values = Observable.range(0, 10)
+		.observeOn(Schedulers.computation())
+		.lift(new CheckContextOperator())
+		.toList()
+		.toBlocking()
+		.single();
+		Assert.assertEquals(10, values.size());
+	}
+
+	@Test
+	public void testSchedulerMode() {
+		RxJavaHooks.reset();
+		new RxJava1ContextPropagator(RxJava1ContextPropagator.Mode.SCHEDULER).setup();
+		try {
+			MyTracingContext.set(new MyTracingContext("trace"));
+			int[] writes = new int[2];
+			List<Integer> values = Observable.range(0, 1000)
+			.observeOn(Schedulers.computation())
+			.lift(new CheckContextOperator())
+			.map(value -> {
+				Assert.assertEquals("trace", MyTracingContext.get().getTraceId());
+				if(value == 0)
+					writes[0] = MyTracingContext.getWrites();
+				else if(value == 999)
+					writes[1] = MyTracingContext.getWrites();
+				return value;
+			})
+			.toList()
+			.toBlocking()
+			.single();
+			Assert.assertEquals(1000, values.size());
+			// installed once per drain loop rather than once per element
+			Assert.assertTrue(writes[1] - writes[0] < 100);
+
+			String value = Single.just("a")
+			.subscribeOn(Schedulers.io())
+			.map(v -> MyContext.get().getReqId())
+			.toBlocking()
+			.value();
+			Assert.assertEquals("test", value);
+		}finally {
+			MyTracingContext.clear();
+			RxJavaHooks.reset();
+			new RxJava1ContextPropagator().setup();
+		}
+	}
+
+	@Test
+	public void testHookChains() {
+		RxJavaHooks.reset();
+		RxJava1ContextPropagator propagator = new RxJava1ContextPropagator();
+		propagator.setup();
+		try {
+			// the default hooks, which delegate to RxJavaPlugins, are kept
+			Assert.assertEquals(2, RxJava1HookChains.ON_OBSERVABLE_CREATE.getHooks().size());
+			AtomicInteger lifts = new AtomicInteger();
+			Func1<Observable.Operator, Observable.Operator> counter = operator -> {
+				lifts.incrementAndGet();
+				return operator;
+			};
+			RxJava1HookChains.ON_OBSERVABLE_LIFT.add(counter);
+
+			List<Integer> values = Observable.range(0, 10)
+			.observeOn(Schedulers.computation())
+			.lift(new CheckContextOperator())
+			.toList()
+			.toBlocking()
+			.single();
+			Assert.assertEquals(10, values.size());
+			Assert.assertTrue(lifts.get() > 0);
+
+			Assert.assertTrue(RxJava1HookChains.ON_OBSERVABLE_LIFT.remove(counter));
+			propagator.teardown();
+			Assert.assertEquals(1, RxJava1HookChains.ON_OBSERVABLE_CREATE.getHooks().size());
+		}finally {
+			RxJavaHooks.reset();
+			new RxJava1ContextPropagator().setup();
+		}
+	}
+
+	@Test
+	public void testHookSetAfterChain() {
+		RxJavaHooks.reset();
+		RxJava1ContextPropagator propagator = new RxJava1ContextPropagator();
+		propagator.setup();
+		try {
+			// another tool replaces our chain in its slot
+			AtomicInteger creates = new AtomicInteger();
+			Func1<Observable.OnSubscribe, Observable.OnSubscribe> foreign = onSubscribe -> {
+				creates.incrementAndGet();
+				return onSubscribe;
+			};
+			RxJavaHooks.setOnObservableCreate(foreign);
+			// and a later change to the chain keeps every hook
+			Func1<Observable.OnSubscribe, Observable.OnSubscribe> counter = onSubscribe -> onSubscribe;
+			RxJava1HookChains.ON_OBSERVABLE_CREATE.add(counter);
+			Assert.assertEquals(4, RxJava1HookChains.ON_OBSERVABLE_CREATE.getHooks().size());
+
+			List<Integer> values = Observable.range(0, 10)
+			.observeOn(Schedulers.computation())
+			.lift(new CheckContextOperator())
+			.toList()
+			.toBlocking()
+			.single();
+			Assert.assertEquals(10, values.size());
+			Assert.assertTrue(creates.get() > 0);
+
+			// our hooks are still found and removed
+			propagator.teardown();
+			List<Func1<Observable.OnSubscribe, Observable.OnSubscribe>> hooks = RxJava1HookChains.ON_OBSERVABLE_CREATE.getHooks();
+			Assert.assertEquals(Arrays.asList(foreign, counter), hooks.subList(1, hooks.size()));
+		}finally {
+			RxJavaHooks.reset();
+			new RxJava1ContextPropagator().setup();
+		}
+	}
+
+	private class CheckContextOperator implements Observable.Operator<Integer, Integer> {
+		@Override
+		public Subscriber<? super Integer> call(Subscriber<? super Integer> child) {
+			return new Subscriber<Integer>(child) {
+				@Override
+				public void onNext(Integer value) {
+					checkContextCaptured();
+					child.onNext(value);
+				}
+
+				@Override
+				public void onError(Throwable e) {
+					child.onError(e);
+				}
+
+				@Override
+				public void onCompleted() {
+					child.onCompleted();
+				}
+			};
+		}
+	}
+
 	private void checkContextCaptured() {
 		Assert.assertEquals("test", MyContext.get().getReqId());
 	}
@@ -1,21 +1,41 @@
 package io.reactiverse.reactivecontexts.test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import io.reactiverse.reactivecontexts.core.Context;
+import io.reactiverse.reactivecontexts.propagators.rxjava2.RxJava2ContextPropagator;
+import io.reactiverse.reactivecontexts.propagators.rxjava2.RxJava2HookChains;
 import io.reactiverse.reactivecontexts.test.MyContext;
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Completable;
 import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
 import io.reactivex.Maybe;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.flowables.ConnectableFlowable;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.fuseable.QueueFuseable;
+import io.reactivex.internal.fuseable.QueueSubscription;
+import io.reactivex.observables.ConnectableObservable;
+import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.schedulers.Schedulers;
 
 public class RxJava2Test {
@@ -35,6 +55,7 @@ public class RxJava2Test {
 	@After
 	public void after() {
 		MyContext.clear();
+		MyTracingContext.clear();
 	}
 	
 	@Test
@@ -170,6 +191,389 @@ public class RxJava2Test {
 			throw ret[0];
 	}
 
+	@Test
+	public void testSharedState() throws Throwable {
+		long reentrantInstalls = Context.getInstance().getReentrantInstallCount();
+		List<String> values = new ArrayList<>();
+
+		Flowable.just("a", "b")
+		.map(value -> {
+			checkContextCaptured();
+			return value.toUpperCase();
+		})
+		.filter(value -> {
+			checkContextCaptured();
+			return true;
+		})
+		.subscribe(value -> {
+			checkContextCaptured();
+			values.add(value);
+		});
+
+		Assert.assertEquals(Arrays.asList("A", "B"), values);
+		// the subscriber capturers share the state installed by the assembly propagators
+		Assert.assertTrue(Context.getInstance().getReentrantInstallCount() > reentrantInstalls);
+	}
+
+	@Test
+	public void testSchedulerMask() throws Throwable {
+		Context context = Context.getInstance();
+		MyTracingContext.set(new MyTracingContext("trace"));
+		RxJava2ContextPropagator.setComputationSchedulerMask(context.mask(context.key(MyContextProvider.class)));
+		try {
+			String traceId = Single.just("a")
+			.observeOn(Schedulers.computation())
+			.map(value -> {
+				checkContextCaptured();
+				MyTracingContext tracingContext = MyTracingContext.get();
+				return tracingContext != null ? tracingContext.getTraceId() : "none";
+			})
+			.blockingGet();
+			Assert.assertEquals("none", traceId);
+		}finally {
+			RxJava2ContextPropagator.setComputationSchedulerMask(null);
+		}
+
+		String traceId = Single.just("a")
+		.observeOn(Schedulers.computation())
+		.map(value -> MyTracingContext.get().getTraceId())
+		.blockingGet();
+		Assert.assertEquals("trace", traceId);
+	}
+
+	@Test
+	public void testObserveOn() {
+		List<String> values = Flowable.just("a", "b")
+		.observeOn(Schedulers.computation())
+		.map(value -> {
+			checkContextCaptured();
+			return value.toUpperCase();
+		})
+		.toList()
+		.blockingGet();
+		Assert.assertEquals(Arrays.asList("A", "B"), values);
+	}
+
+	@Test
+	public void testFusion() throws Throwable {
+		List<Integer> values = new ArrayList<>();
+		Throwable[] ret = new Throwable[1];
+		Flowable.range(0, 3)
+		.map(value -> {
+			checkContextCaptured();
+			return value;
+		})
+		.subscribe(new FlowableSubscriber<Integer>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public void onSubscribe(Subscription s) {
+				// fusion is preserved
+				Assert.assertTrue(s instanceof QueueSubscription);
+				QueueSubscription<Integer> queue = (QueueSubscription<Integer>) s;
+				Assert.assertEquals(QueueFuseable.SYNC, queue.requestFusion(QueueFuseable.ANY));
+				// the fused map is called by poll(), from a thread without the contexts
+				Thread thread = new Thread(() -> {
+					try {
+						Integer value;
+						while((value = queue.poll()) != null)
+							values.add(value);
+					} catch (Throwable t) {
+						ret[0] = t;
+					}
+				});
+				thread.start();
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			@Override
+			public void onNext(Integer value) {
+				Assert.fail("Should not be called in fused mode");
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				ret[0] = t;
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+		if (ret[0] != null)
+			throw ret[0];
+		Assert.assertEquals(Arrays.asList(0, 1, 2), values);
+	}
+
+	@Test
+	public void testParallel() throws Throwable {
+		// many requests with their own context, all sharing the computation scheduler rails
+		int requests = 8;
+		Queue<String> errors = new ConcurrentLinkedQueue<>();
+		CountDownLatch done = new CountDownLatch(requests);
+		for (int i = 0; i < requests; i++) {
+			String reqId = "req"+i;
+			new Thread(() -> {
+				MyContext.init();
+				MyContext.get().set(reqId);
+				try {
+					long count = Flowable.range(0, 1000)
+					.parallel(4)
+					.runOn(Schedulers.computation())
+					.map(value -> {
+						MyContext context = MyContext.get();
+						if(context == null || !reqId.equals(context.getReqId()))
+							errors.add(reqId+" got "+(context != null ? context.getReqId() : null));
+						return value;
+					})
+					.filter(value -> {
+						if(MyContext.get() == null || !reqId.equals(MyContext.get().getReqId()))
+							errors.add(reqId+" filter");
+						return true;
+					})
+					.sequential()
+					.count()
+					.blockingGet();
+					if(count != 1000)
+						errors.add(reqId+" count "+count);
+				}catch(Throwable t) {
+					errors.add(reqId+" "+t);
+				}finally {
+					MyContext.clear();
+					done.countDown();
+				}
+			}).start();
+		}
+		done.await();
+		Assert.assertEquals(Collections.emptyList(), new ArrayList<>(errors));
+	}
+
+	@Test
+	public void testConnectableFlowable() throws Throwable {
+		List<String> values = new ArrayList<>();
+		ConnectableFlowable<String> flowable = Flowable.just("a", "b")
+		.map(value -> {
+			checkContextCaptured();
+			return value.toUpperCase();
+		})
+		.publish();
+		flowable.subscribe(value -> {
+			checkContextCaptured();
+			values.add(value);
+		});
+		// connect without any context
+		MyContext.clear();
+		flowable.connect(disposable -> checkContextCaptured());
+		Assert.assertEquals(Arrays.asList("A", "B"), values);
+	}
+
+	@Test
+	public void testConnectableDisposable() {
+		ConnectableFlowable<String> flowable = Flowable.just("a").replay();
+		Assert.assertTrue(flowable instanceof Disposable);
+		ConnectableObservable<String> observable = Observable.just("a").replay();
+		Assert.assertTrue(observable instanceof Disposable);
+		Assert.assertFalse(Flowable.just("a").publish() instanceof Disposable);
+		flowable.connect();
+		observable.connect();
+		Assert.assertFalse(((Disposable) flowable).isDisposed());
+		((Disposable) flowable).dispose();
+		((Disposable) observable).dispose();
+		Assert.assertTrue(((Disposable) flowable).isDisposed());
+		Assert.assertTrue(((Disposable) observable).isDisposed());
+	}
+
+	@Test
+	public void testConnectableObservable() throws Throwable {
+		List<String> values = new ArrayList<>();
+		ConnectableObservable<String> observable = Observable.just("a", "b")
+		.map(value -> {
+			checkContextCaptured();
+			return value.toUpperCase();
+		})
+		.replay();
+		// connect without any context
+		MyContext.clear();
+		Thread thread = new Thread(() -> observable.connect(disposable -> checkContextCaptured()));
+		thread.start();
+		thread.join();
+		MyContext.init();
+		MyContext.get().set("test");
+		observable.subscribe(value -> {
+			checkContextCaptured();
+			values.add(value);
+		});
+		Assert.assertEquals(Arrays.asList("A", "B"), values);
+	}
+
+	@Test
+	public void testSchedulerMode() throws Throwable {
+		RxJavaPlugins.reset();
+		new RxJava2ContextPropagator(RxJava2ContextPropagator.Mode.SCHEDULER).setup();
+		try {
+			MyTracingContext.set(new MyTracingContext("trace"));
+			int[] writes = new int[2];
+			List<Integer> values = Flowable.range(0, 1000)
+			.observeOn(Schedulers.computation())
+			.map(value -> {
+				checkContextCaptured();
+				Assert.assertEquals("trace", MyTracingContext.get().getTraceId());
+				if(value == 0)
+					writes[0] = MyTracingContext.getWrites();
+				else if(value == 999)
+					writes[1] = MyTracingContext.getWrites();
+				return value;
+			})
+			.toList()
+			.blockingGet();
+			Assert.assertEquals(1000, values.size());
+			// installed once per drain loop rather than once per element
+			Assert.assertTrue(writes[1] - writes[0] < 100);
+
+			String value = Single.just("a")
+			.subscribeOn(Schedulers.io())
+			.map(v -> MyContext.get().getReqId())
+			.blockingGet();
+			Assert.assertEquals("test", value);
+
+			RxJava2ContextPropagator.setComputationSchedulerMask(Context.getInstance().mask(Context.getInstance().key(MyContextProvider.class)));
+			value = Single.just("a")
+			.observeOn(Schedulers.computation())
+			.map(v -> {
+				checkContextCaptured();
+				return MyTracingContext.get() != null ? MyTracingContext.get().getTraceId() : "none";
+			})
+			.blockingGet();
+			Assert.assertEquals("none", value);
+		}finally {
+			RxJavaPlugins.reset();
+			new RxJava2ContextPropagator().setup();
+		}
+	}
+
+	@Test
+	public void testHookChains() throws Throwable {
+		RxJavaPlugins.reset();
+		// the chain forgets the hooks of previous tests once it sees the reset
+		Assert.assertEquals(0, RxJava2HookChains.ON_FLOWABLE_ASSEMBLY.getHooks().size());
+		// another tool's hook, set before ours
+		AtomicInteger assemblies = new AtomicInteger();
+		RxJavaPlugins.setOnFlowableAssembly(flowable -> {
+			assemblies.incrementAndGet();
+			return flowable;
+		});
+		RxJava2ContextPropagator propagator = new RxJava2ContextPropagator();
+		propagator.setup();
+		try {
+			Assert.assertEquals(2, RxJava2HookChains.ON_FLOWABLE_ASSEMBLY.getHooks().size());
+			// and one added after ours
+			AtomicInteger subscribes = new AtomicInteger();
+			BiFunction<Flowable, Subscriber, Subscriber> counter = (flowable, subscriber) -> {
+				subscribes.incrementAndGet();
+				return subscriber;
+			};
+			RxJava2HookChains.ON_FLOWABLE_SUBSCRIBE.add(counter);
+
+			List<String> values = Flowable.just("a")
+			.observeOn(Schedulers.computation())
+			.map(value -> {
+				checkContextCaptured();
+				return value.toUpperCase();
+			})
+			.toList()
+			.blockingGet();
+			Assert.assertEquals(Arrays.asList("A"), values);
+			Assert.assertTrue(assemblies.get() > 0);
+			Assert.assertTrue(subscribes.get() > 0);
+
+			Assert.assertTrue(RxJava2HookChains.ON_FLOWABLE_SUBSCRIBE.remove(counter));
+			Assert.assertFalse(RxJava2HookChains.ON_FLOWABLE_SUBSCRIBE.remove(counter));
+			propagator.teardown();
+			// only the other tool's hook is left
+			Assert.assertEquals(1, RxJava2HookChains.ON_FLOWABLE_ASSEMBLY.getHooks().size());
+			Assert.assertNull(RxJavaPlugins.getOnFlowableSubscribe());
+			int count = assemblies.get();
+			Flowable.just("a").map(value -> value).blockingFirst();
+			Assert.assertTrue(assemblies.get() > count);
+		}finally {
+			RxJavaPlugins.reset();
+			new RxJava2ContextPropagator().setup();
+		}
+	}
+
+	@Test
+	public void testHookSetAfterChain() throws Throwable {
+		RxJavaPlugins.reset();
+		RxJava2ContextPropagator propagator = new RxJava2ContextPropagator();
+		propagator.setup();
+		try {
+			// another tool replaces our chains in their slots
+			AtomicInteger assemblies = new AtomicInteger();
+			Function<Flowable, Flowable> foreign = flowable -> {
+				assemblies.incrementAndGet();
+				return flowable;
+			};
+			RxJavaPlugins.setOnFlowableAssembly(foreign);
+			Function<Single, Single> foreignSingle = single -> single;
+			RxJavaPlugins.setOnSingleAssembly(foreignSingle);
+			// and a later change to the chain keeps every hook
+			Function<Flowable, Flowable> counter = flowable -> flowable;
+			RxJava2HookChains.ON_FLOWABLE_ASSEMBLY.add(counter);
+			Assert.assertEquals(3, RxJava2HookChains.ON_FLOWABLE_ASSEMBLY.getHooks().size());
+			Assert.assertSame(RxJava2HookChains.ON_FLOWABLE_ASSEMBLY, RxJavaPlugins.getOnFlowableAssembly());
+
+			List<String> values = Flowable.just("a")
+			.observeOn(Schedulers.computation())
+			.map(value -> {
+				checkContextCaptured();
+				return value.toUpperCase();
+			})
+			.toList()
+			.blockingGet();
+			Assert.assertEquals(Arrays.asList("A"), values);
+			Assert.assertTrue(assemblies.get() > 0);
+
+			// our hooks are still found and removed
+			propagator.teardown();
+			Assert.assertEquals(Arrays.asList(foreign, counter), RxJava2HookChains.ON_FLOWABLE_ASSEMBLY.getHooks());
+			Assert.assertEquals(Arrays.asList(foreignSingle), RxJava2HookChains.ON_SINGLE_ASSEMBLY.getHooks());
+		}finally {
+			RxJavaPlugins.reset();
+			new RxJava2ContextPropagator().setup();
+		}
+	}
+
+	@Test
+	public void testModeProperty() {
+		Assert.assertEquals(RxJava2ContextPropagator.Mode.SUBSCRIBER, new RxJava2ContextPropagator().getMode());
+		System.setProperty(RxJava2ContextPropagator.MODE_PROPERTY, "scheduler");
+		try {
+			Assert.assertEquals(RxJava2ContextPropagator.Mode.SCHEDULER, new RxJava2ContextPropagator().getMode());
+		}finally {
+			System.clearProperty(RxJava2ContextPropagator.MODE_PROPERTY);
+		}
+	}
+
+	@Test
+	public void testContextChangedInCallback() {
+		String reqId = Single.just("a")
+		.map(value -> {
+			// the state of this callback is installed, but the context is modified directly
+			MyContext.init();
+			MyContext.get().set("inner");
+			return Single.fromCallable(() -> MyContext.get().getReqId())
+					.subscribeOn(Schedulers.newThread())
+					.blockingGet();
+		})
+		.blockingGet();
+
+		Assert.assertEquals("inner", reqId);
+		checkContextCaptured();
+	}
+
 	private void checkContextCaptured() {
 		Assert.assertEquals("test", MyContext.get().getReqId());
 	}
@@ -0,0 +1,302 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.reactiverse.reactivecontexts.core.Context;
+import io.reactivex.rxjava3.core.BackpressureStrategy;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.FlowableSubscriber;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.operators.QueueFuseable;
+import io.reactivex.rxjava3.operators.QueueSubscription;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+
+public class RxJava3Test {
+
+	@BeforeClass
+	public static void init() {
+		// initialise
+		Context.load();
+	}
+	
+	@Before
+	public void before() {
+		MyContext.init();
+		MyContext.get().set("test");
+	}
+	
+	@After
+	public void after() {
+		MyContext.clear();
+		MyTracingContext.clear();
+	}
+	
+	@Test
+	public void testCompletable() throws Throwable {
+		// check initial state
+		checkContextCaptured();
+		CountDownLatch latch = new CountDownLatch(1);
+
+		Throwable[] ret = new Throwable[1];
+		Completable.create(subscriber -> {
+			// check deferred state
+			checkContextCaptured();
+			
+			subscriber.onComplete();
+		})
+		.subscribeOn(Schedulers.newThread())
+		.subscribe(() -> {
+			latch.countDown();
+		}, error -> {
+			ret[0] = error;
+			latch.countDown();
+		});
+
+		latch.await();
+		if (ret[0] != null)
+			throw ret[0];
+	}
+
+	@Test
+	public void testSingle() throws Throwable {
+		// check initial state
+		checkContextCaptured();
+		CountDownLatch latch = new CountDownLatch(1);
+
+		Throwable[] ret = new Throwable[1];
+		Single.create(subscriber -> {
+			// check deferred state
+			checkContextCaptured();
+			
+			subscriber.onSuccess("YES");
+		})
+		.subscribeOn(Schedulers.newThread())
+		.subscribe(success -> {
+			latch.countDown();
+		}, error -> {
+			ret[0] = error;
+			latch.countDown();
+		});
+
+		latch.await();
+		if (ret[0] != null)
+			throw ret[0];
+	}
+
+	@Test
+	public void testObservable() throws Throwable {
+		// check initial state
+		checkContextCaptured();
+		CountDownLatch latch = new CountDownLatch(1);
+
+		Throwable[] ret = new Throwable[1];
+		Observable.create(emitter -> {
+			// check deferred state
+			checkContextCaptured();
+			
+			emitter.onNext("a");
+			emitter.onComplete();
+		})
+		.subscribeOn(Schedulers.newThread())
+		.subscribe(success -> {
+			latch.countDown();
+		}, error -> {
+			ret[0] = error;
+			latch.countDown();
+		});
+
+		latch.await();
+		if (ret[0] != null)
+			throw ret[0];
+	}
+
+	@Test
+	public void testFlowable() throws Throwable {
+		// check initial state
+		checkContextCaptured();
+		CountDownLatch latch = new CountDownLatch(1);
+
+		Throwable[] ret = new Throwable[1];
+		Flowable.create(emitter -> {
+			// check deferred state
+			checkContextCaptured();
+			
+			emitter.onNext("a");
+			emitter.onComplete();
+		}, BackpressureStrategy.BUFFER)
+		.subscribeOn(Schedulers.newThread())
+		.subscribe(success -> {
+			latch.countDown();
+		}, error -> {
+			ret[0] = error;
+			latch.countDown();
+		});
+
+		latch.await();
+		if (ret[0] != null)
+			throw ret[0];
+	}
+
+	@Test
+	public void testMaybe() throws Throwable {
+		// check initial state
+		checkContextCaptured();
+		CountDownLatch latch = new CountDownLatch(1);
+
+		Throwable[] ret = new Throwable[1];
+		Maybe.create(emitter -> {
+			// check deferred state
+			checkContextCaptured();
+
+			emitter.onSuccess("a");
+			emitter.onComplete();
+		})
+		.subscribeOn(Schedulers.newThread())
+		.subscribe(success -> {
+			latch.countDown();
+		}, error -> {
+			ret[0] = error;
+			latch.countDown();
+		});
+
+		latch.await();
+		if (ret[0] != null)
+			throw ret[0];
+	}
+
+	@Test
+	public void testSharedState() throws Throwable {
+		long reentrantInstalls = Context.getInstance().getReentrantInstallCount();
+		List<String> values = new ArrayList<>();
+
+		Flowable.just("a", "b")
+		.map(value -> {
+			checkContextCaptured();
+			return value.toUpperCase();
+		})
+		.filter(value -> {
+			checkContextCaptured();
+			return true;
+		})
+		.subscribe(value -> {
+			checkContextCaptured();
+			values.add(value);
+		});
+
+		Assert.assertEquals(Arrays.asList("A", "B"), values);
+		// the subscriber capturers share the state installed by the assembly propagators
+		Assert.assertTrue(Context.getInstance().getReentrantInstallCount() > reentrantInstalls);
+	}
+
+	@Test
+	public void testObserveOn() {
+		List<String> values = Flowable.just("a", "b")
+		.observeOn(Schedulers.computation())
+		.map(value -> {
+			checkContextCaptured();
+			return value.toUpperCase();
+		})
+		.toList()
+		.blockingGet();
+		Assert.assertEquals(Arrays.asList("A", "B"), values);
+	}
+
+	@Test
+	public void testParallel() {
+		List<Integer> values = Flowable.range(0, 10)
+		.parallel(2)
+		.runOn(Schedulers.computation())
+		.map(value -> {
+			checkContextCaptured();
+			return value;
+		})
+		.sequential()
+		.toSortedList()
+		.blockingGet();
+		Assert.assertEquals(10, values.size());
+	}
+
+	@Test
+	public void testParallelValidation() {
+		TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+		@SuppressWarnings("unchecked")
+		Subscriber<Integer>[] subscribers = new Subscriber[] { subscriber };
+		Flowable.range(0, 10)
+		.parallel(2)
+		.subscribe(subscribers);
+		subscriber.assertError(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testFusion() throws Throwable {
+		List<Integer> values = new ArrayList<>();
+		Throwable[] ret = new Throwable[1];
+		Flowable.range(0, 3)
+		.map(value -> {
+			checkContextCaptured();
+			return value;
+		})
+		.subscribe(new FlowableSubscriber<Integer>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public void onSubscribe(Subscription s) {
+				// fusion is preserved
+				Assert.assertTrue(s instanceof QueueSubscription);
+				QueueSubscription<Integer> queue = (QueueSubscription<Integer>) s;
+				Assert.assertEquals(QueueFuseable.SYNC, queue.requestFusion(QueueFuseable.ANY));
+				// the fused map is called by poll(), from a thread without the contexts
+				Thread thread = new Thread(() -> {
+					try {
+						Integer value;
+						while((value = queue.poll()) != null)
+							values.add(value);
+					} catch (Throwable t) {
+						ret[0] = t;
+					}
+				});
+				thread.start();
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			@Override
+			public void onNext(Integer value) {
+				Assert.fail("Should not be called in fused mode");
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				ret[0] = t;
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+		if (ret[0] != null)
+			throw ret[0];
+		Assert.assertEquals(Arrays.asList(0, 1, 2), values);
+	}
+
+	private void checkContextCaptured() {
+		Assert.assertEquals("test", MyContext.get().getReqId());
+	}
+}
@@ -0,0 +1,62 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+
+public class VirtualThreadTest {
+
+	@BeforeClass
+	public static void init() {
+		// initialise
+		Context.load();
+	}
+
+	@After
+	public void after() {
+		MyContext.clear();
+		Context.clearThreadInstance();
+	}
+
+	private void newRequest(String reqId) {
+		MyContext.init();
+		MyContext.get().set(reqId);
+	}
+
+	private static int javaVersion() {
+		String version = System.getProperty("java.specification.version");
+		// 1.8 for Java 8
+		return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+	}
+
+	@Test
+	public void testVirtualThreadPerTaskExecutor() throws Throwable {
+		ExecutorService executor;
+		try {
+			executor = Context.newVirtualThreadPerTaskExecutor();
+		}catch(UnsupportedOperationException x) {
+			// the multi-release jar must support them on Java 21
+			Assert.assertFalse("Virtual threads are not supported on Java "+javaVersion(), javaVersion() >= 21);
+			Assume.assumeNoException("Virtual threads are not supported on this JVM", x);
+			return;
+		}
+		try {
+			newRequest("req 1");
+			Future<String> task1 = executor.submit(() -> MyContext.get().getReqId());
+			newRequest("req 2");
+			Future<String> task2 = executor.submit(() -> MyContext.get().getReqId());
+
+			Assert.assertEquals("req 1", task1.get());
+			Assert.assertEquals("req 2", task2.get());
+		}finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package io.reactiverse.reactivecontexts.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.reactiverse.reactivecontexts.core.Context;
+
+public class WrapTest {
+
+	@BeforeClass
+	public static void init() {
+		// initialise
+		Context.load();
+	}
+
+	@After
+	public void after() {
+		MyContext.clear();
+	}
+
+	private void newRequest(String reqId) {
+		MyContext.init();
+		MyContext.get().set(reqId);
+	}
+
+	private static String reqId() {
+		return MyContext.get().getReqId();
+	}
+
+	@Test
+	public void testObjectInterfaces() throws Exception {
+		newRequest("req 1");
+		Supplier<String> supplier = Context.wrapSupplier(WrapTest::reqId);
+		Callable<String> callable = Context.wrapCallable(WrapTest::reqId);
+		Predicate<String> predicate = Context.wrapPredicate(reqId -> reqId.equals(reqId()));
+		List<String> reqIds = new ArrayList<>();
+		ObjIntConsumer<List<String>> consumer = Context.wrapObjIntConsumer((list, i) -> list.add(reqId()));
+		// still a Runnable, even though its body has a value
+		Runnable runnable = Context.wrap(() -> reqIds.add(reqId()));
+		newRequest("req 2");
+
+		Assert.assertEquals("req 1", supplier.get());
+		Assert.assertEquals("req 1", callable.call());
+		Assert.assertTrue(predicate.test("req 1"));
+		consumer.accept(reqIds, 0);
+		runnable.run();
+		Assert.assertEquals(2, reqIds.size());
+		Assert.assertEquals("req 1", reqIds.get(0));
+		Assert.assertEquals("req 1", reqIds.get(1));
+		// restored
+		Assert.assertEquals("req 2", reqId());
+	}
+
+	@Test
+	public void testFunctionCallSites() {
+		newRequest("req 1");
+		// these must keep resolving to the wrap overloads, which are not ambiguous with the other wrappers
+		Function<String, Integer> length = Context.wrap((String s) -> s.length());
+		Function<Integer, Boolean> positive = Context.wrap((Integer i) -> i > 0);
+		Function<String, Integer> reference = Context.wrap(String::length);
+		List<String> reqIds = new ArrayList<>();
+		Consumer<String> consumer = Context.wrap((String s) -> {
+			reqIds.add(s + " " + reqId());
+		});
+		BiFunction<String, Integer, String> biFunction = Context.wrap((String s, Integer i) -> s + i + " " + reqId());
+		newRequest("req 2");
+
+		Assert.assertEquals(Integer.valueOf(5), length.apply("value"));
+		Assert.assertTrue(positive.apply(1));
+		Assert.assertEquals(Integer.valueOf(5), reference.apply("value"));
+		consumer.accept("value");
+		Assert.assertEquals("value req 1", reqIds.get(0));
+		Assert.assertEquals("value1 req 1", biFunction.apply("value", 1));
+		Assert.assertEquals("req 2", reqId());
+	}
+
+	@Test
+	public void testExceptionRestoresContext() {
+		newRequest("req 1");
+		IntSupplier supplier = Context.wrapIntSupplier(() -> {
+			throw new IllegalStateException(reqId());
+		});
+		newRequest("req 2");
+
+		try {
+			supplier.getAsInt();
+			Assert.fail();
+		}catch(IllegalStateException x) {
+			Assert.assertEquals("req 1", x.getMessage());
+		}
+		Assert.assertEquals("req 2", reqId());
+	}
+
+	@Test
+	public void testPrimitiveInterfaces() {
+		newRequest("req 1");
+		IntUnaryOperator operator = Context.wrapIntUnaryOperator(value -> "req 1".equals(reqId()) ? value : -1);
+		IntPredicate predicate = Context.wrapIntPredicate(value -> "req 1".equals(reqId()));
+		ToLongFunction<String> function = Context.wrapToLongFunction(value -> reqId().length());
+		newRequest("req 2");
+
+		// parallel workers have no context of their own
+		Assert.assertEquals(IntStream.range(0, 1000).sum(), IntStream.range(0, 1000).parallel().map(operator).filter(predicate).sum());
+		Assert.assertEquals(5, function.applyAsLong("value"));
+		Assert.assertEquals("req 2", reqId());
+	}
+}